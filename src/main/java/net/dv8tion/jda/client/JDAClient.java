@@ -17,7 +17,22 @@ package net.dv8tion.jda.client;
 
 import net.dv8tion.jda.JDA;
 import net.dv8tion.jda.client.entities.ClientSelfInfo;
+import net.dv8tion.jda.client.entities.Relationship;
+import net.dv8tion.jda.client.entities.RelationshipType;
 import net.dv8tion.jda.client.managers.ClientAccountManager;
+import net.dv8tion.jda.client.managers.GuildSyncManager;
+import net.dv8tion.jda.client.managers.MemoryManager;
+import net.dv8tion.jda.client.managers.PresenceManager;
+import net.dv8tion.jda.client.managers.ReadStateManager;
+import net.dv8tion.jda.client.managers.SearchManager;
+import net.dv8tion.jda.client.requests.HealthMonitor;
+import net.dv8tion.jda.client.utils.StartupProfile;
+import net.dv8tion.jda.entities.MessageChannel;
+import net.dv8tion.jda.entities.User;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 
 public interface JDAClient extends JDA
 {
@@ -26,4 +41,184 @@ public interface JDAClient extends JDA
 
     @Override
     ClientSelfInfo getSelfInfo();
+
+    /**
+     * Returns a list of all {@link net.dv8tion.jda.client.entities.Relationship Relationships} of the logged in account.
+     * This includes friends, blocked users and pending friend requests.
+     * <br>
+     * The list is seeded from the READY payload and kept up to date by the gateway, no request is made.
+     *
+     * @return
+     *      Never-null, unmodifiable list of all Relationships.
+     */
+    List<Relationship> getRelationships();
+
+    /**
+     * Returns a list of all {@link net.dv8tion.jda.client.entities.Relationship Relationships} of the given
+     * {@link net.dv8tion.jda.client.entities.RelationshipType RelationshipType}.
+     *
+     * @param type
+     *          The type of the relationships to return.
+     * @return
+     *      Never-null, unmodifiable list of all Relationships with the given type.
+     */
+    List<Relationship> getRelationships(RelationshipType type);
+
+    /**
+     * Returns the {@link net.dv8tion.jda.client.entities.Relationship Relationship} with the
+     * {@link net.dv8tion.jda.entities.User User} with the given id.
+     *
+     * @param userId
+     *          The id of the User.
+     * @return
+     *      Possibly-null Relationship with the given User. Null if there is no relationship with the User.
+     */
+    Relationship getRelationship(String userId);
+
+    /**
+     * Returns the {@link net.dv8tion.jda.client.entities.Relationship Relationship} with the given
+     * {@link net.dv8tion.jda.entities.User User}.
+     *
+     * @param user
+     *          The User.
+     * @return
+     *      Possibly-null Relationship with the given User. Null if there is no relationship with the User.
+     */
+    Relationship getRelationship(User user);
+
+    /**
+     * Checks whether or not the given {@link net.dv8tion.jda.entities.User User} is a friend of the logged in account.
+     *
+     * @param user
+     *          The User to check.
+     * @return
+     *      True if the User is a friend.
+     */
+    boolean isFriend(User user);
+
+    /**
+     * Checks whether or not the given {@link net.dv8tion.jda.entities.User User} is blocked by the logged in account.
+     *
+     * @param user
+     *          The User to check.
+     * @return
+     *      True if the User is blocked.
+     */
+    boolean isBlocked(User user);
+
+    /**
+     * The {@link net.dv8tion.jda.client.managers.ReadStateManager ReadStateManager} of this account.
+     * It keeps track of unread messages and mentions per channel and can be used to acknowledge messages.
+     *
+     * @return
+     *      The ReadStateManager of this account.
+     */
+    ReadStateManager getReadStateManager();
+
+    /**
+     * The {@link net.dv8tion.jda.client.managers.GuildSyncManager GuildSyncManager} of this account.
+     * It is used to load the full member lists of guilds, which user accounts do not receive with READY.
+     *
+     * @return
+     *      The GuildSyncManager of this account.
+     */
+    GuildSyncManager getGuildSyncManager();
+
+    /**
+     * The {@link net.dv8tion.jda.client.managers.PresenceManager PresenceManager} of this account.
+     * It merges rapid game/idle changes and only sends the latest one within Discord's rate limits.
+     *
+     * @return
+     *      The PresenceManager of this account.
+     */
+    PresenceManager getPresenceManager();
+
+    /**
+     * The {@link net.dv8tion.jda.client.managers.SearchManager SearchManager} of this account.
+     * It is used to search the messages of guilds using Discord's search index.
+     *
+     * @return
+     *      The SearchManager of this account.
+     */
+    SearchManager getSearchManager();
+
+    /**
+     * The {@link net.dv8tion.jda.client.managers.MemoryManager MemoryManager} of this account.
+     * It reports entity counts and estimated memory usage of the caches and can evict optional caches.
+     *
+     * @return
+     *      The MemoryManager of this account.
+     */
+    MemoryManager getMemoryManager();
+
+    /**
+     * The {@link net.dv8tion.jda.client.requests.HealthMonitor HealthMonitor} of this account.
+     * <br>
+     * Collects heartbeat latencies, frame rates and dispatch times of the gateway connection once it was started.
+     *
+     * @return
+     *      The HealthMonitor of this account.
+     */
+    HealthMonitor getHealthMonitor();
+
+    /**
+     * Creates a {@link net.dv8tion.jda.client.MessageHistoryStream MessageHistoryStream} over the complete history of
+     * the given channel, starting with the newest message.
+     * This uses a prefetch of {@value MessageHistoryStream#DEFAULT_PREFETCH} pages with
+     * {@value MessageHistoryStream#MAX_PAGE_SIZE} messages each.
+     *
+     * @param channel
+     *          The channel to read.
+     * @return
+     *      A new MessageHistoryStream. It should be closed if it is not iterated to the end.
+     */
+    MessageHistoryStream getHistoryStream(MessageChannel channel);
+
+    /**
+     * Creates a {@link net.dv8tion.jda.client.MessageHistoryStream MessageHistoryStream} over the complete history of
+     * the given channel, starting with the newest message.
+     *
+     * @param channel
+     *          The channel to read.
+     * @param prefetch
+     *          The maximum amount of pages that are retrieved ahead of the consumer.
+     *          This also limits the amount of retrieved messages held in memory.
+     * @return
+     *      A new MessageHistoryStream. It should be closed if it is not iterated to the end.
+     */
+    MessageHistoryStream getHistoryStream(MessageChannel channel, int prefetch);
+
+    /**
+     * Starts writing all received gateway frames and REST responses to the given file.
+     * The file can be fed back using {@link net.dv8tion.jda.client.requests.GatewayReplay GatewayReplay}.
+     * An already running recording is stopped.
+     *
+     * @param file
+     *          The file to write the recording to. Existing files are overwritten.
+     * @throws IOException
+     *          If the file could not be opened.
+     */
+    void startRecording(Path file) throws IOException;
+
+    /**
+     * Stops the current recording, if there is one, and closes the file.
+     */
+    void stopRecording();
+
+    /**
+     * Whether or not gateway frames are currently recorded.
+     *
+     * @return
+     *      True if a recording is running.
+     */
+    boolean isRecording();
+
+    /**
+     * The {@link net.dv8tion.jda.client.utils.StartupProfile StartupProfile} of this client.
+     * It reports how long each phase of the startup took until the first READY was received.
+     *
+     * @return
+     *      The StartupProfile of this client.
+     */
+    StartupProfile getStartupProfile();
 }
@@ -16,16 +16,23 @@
 package net.dv8tion.jda.client;
 
 import net.dv8tion.jda.client.entities.impl.JDAClientImpl;
+import net.dv8tion.jda.client.requests.ClientRequester;
+import net.dv8tion.jda.client.utils.StartupProfile;
 import net.dv8tion.jda.events.ReadyEvent;
 import net.dv8tion.jda.hooks.AnnotatedEventManager;
 import net.dv8tion.jda.hooks.IEventManager;
 import net.dv8tion.jda.hooks.ListenerAdapter;
 import net.dv8tion.jda.hooks.SubscribeEvent;
+import net.dv8tion.jda.requests.Requester;
+import org.json.JSONObject;
 
 import javax.security.auth.login.LoginException;
-import java.util.LinkedList;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Used to create a new {@link net.dv8tion.jda.JDA} instance. This is useful for making sure all of
@@ -44,6 +51,10 @@ public class JDAClientBuilder
     protected String email = null;
     protected String password = null;
     protected String code = null;
+    protected Path recordingFile = null;
+    protected String apiUrl = null;
+    protected boolean coldStart = false;
+    protected boolean audioSet = false;
  
     //JDABuilder 
     protected static boolean proxySet = false;
@@ -67,7 +78,7 @@ public class JDAClientBuilder
      */
     public JDAClientBuilder()
     {
-        listeners = new LinkedList<>();
+        listeners = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -137,6 +148,44 @@ public class JDAClientBuilder
         return this;
     }
 
+    /**
+     * Sets the base url of the REST API that will be used instead of Discord's.
+     * The gateway is discovered through the {@code gateway} endpoint of this API, just like with Discord.
+     * <br>
+     * This is meant for testing and benchmarking against a stand-in server like
+     * {@link net.dv8tion.jda.client.mock.MockDiscordServer MockDiscordServer}.
+     * <p>
+     * Default: {@link net.dv8tion.jda.requests.Requester#DISCORD_API_PREFIX}
+     *
+     * @param apiUrl
+     *          The base url of the API, or null to use Discord's.
+     * @return
+     *      Returns the {@link net.dv8tion.jda.client.JDAClientBuilder JDAClientBuilder} instance. Useful for chaining.
+     */
+    public JDAClientBuilder setApiUrl(String apiUrl)
+    {
+        this.apiUrl = apiUrl;
+        return this;
+    }
+
+    /**
+     * Enables recording of all gateway frames and REST responses, starting before login so that READY is included.
+     * The recording can be stopped using {@link net.dv8tion.jda.client.JDAClient#stopRecording()} and
+     * replayed using {@link net.dv8tion.jda.client.requests.GatewayReplay GatewayReplay}.
+     * <p>
+     * Default: null (no recording)
+     *
+     * @param file
+     *          The file to write the recording to, or null to disable recording.
+     * @return
+     *      Returns the {@link net.dv8tion.jda.client.JDAClientBuilder JDAClientBuilder} instance. Useful for chaining.
+     */
+    public JDAClientBuilder setRecordingFile(Path file)
+    {
+        this.recordingFile = file;
+        return this;
+    }
+
     /**
      * Sets the proxy that will be used by <b>ALL</b> JDA instances.<br>
      * Once this is set <b>IT CANNOT BE CHANGED.</b><br>
@@ -176,6 +225,33 @@ public class JDAClientBuilder
     public JDAClientBuilder setAudioEnabled(boolean enabled)
     {
         this.enableVoice = enabled;
+        this.audioSet = true;
+        return this;
+    }
+
+    /**
+     * Enables/Disables the cold start mode, which shortens the time from building the client until READY.
+     * This is meant for short-lived processes.
+     * <br>
+     * In cold start mode:
+     * <ul>
+     *     <li>Audio is disabled unless it was explicitly enabled using {@link #setAudioEnabled(boolean)}.</li>
+     *     <li>The HTTP client is initialized and connected to the API in parallel to the construction of the client.</li>
+     *     <li>The token store (tokens.json) is read in parallel to the construction of the client.</li>
+     * </ul>
+     * Optional subsystems like the search and memory managers are always created on first use.
+     * The time spent in each phase is reported by {@link net.dv8tion.jda.client.JDAClient#getStartupProfile()}.
+     * <p>
+     * Default: false
+     *
+     * @param coldStart
+     *          True - enables the cold start mode.
+     * @return
+     *      Returns the {@link JDAClientBuilder JDAClientBuilder} instance. Useful for chaining.
+     */
+    public JDAClientBuilder setColdStart(boolean coldStart)
+    {
+        this.coldStart = coldStart;
         return this;
     }
 
@@ -216,7 +292,7 @@ public class JDAClientBuilder
      * <b>This method is deprecated! Please switch to {@link #setEventManager(IEventManager)}.</b>
      * <p>
      * Changes the internal EventManager.
-     * The default EventManager is {@link net.dv8tion.jda.hooks.InterfacedEventManager InterfacedEventListener}.
+     * The default EventManager is the {@link net.dv8tion.jda.client.hooks.ClientEventManager ClientEventManager}.
      * There is also an {@link AnnotatedEventManager AnnotatedEventManager} available.
      *
      * @param useAnnotated
@@ -236,7 +312,8 @@ public class JDAClientBuilder
      * There are 2 provided Implementations:
      * <ul>
      *     <li>{@link net.dv8tion.jda.hooks.InterfacedEventManager} which uses the Interface {@link net.dv8tion.jda.hooks.EventListener}
-     *     (tip: use the {@link net.dv8tion.jda.hooks.ListenerAdapter}). This is the default EventManager.</li>
+     *     (tip: use the {@link net.dv8tion.jda.hooks.ListenerAdapter}). The default
+     *     {@link net.dv8tion.jda.client.hooks.ClientEventManager ClientEventManager} uses the same Interface.</li>
      *     <li>{@link net.dv8tion.jda.hooks.AnnotatedEventManager} which uses the Annotation {@link net.dv8tion.jda.hooks.SubscribeEvent} to mark the methods that listen for events.</li>
      * </ul>
      * You can also create your own EventManager (See {@link net.dv8tion.jda.hooks.IEventManager}).
@@ -254,10 +331,10 @@ public class JDAClientBuilder
 
     /**
      * Adds a listener to the list of listeners that will be used to populate the {@link net.dv8tion.jda.JDA} object.
-     * This uses the {@link net.dv8tion.jda.hooks.InterfacedEventManager InterfacedEventListener} by default.
+     * This uses the {@link net.dv8tion.jda.client.hooks.ClientEventManager ClientEventManager} by default.
      * To switch to the {@link net.dv8tion.jda.hooks.AnnotatedEventManager AnnotatedEventManager}, use {@link #useAnnotatedEventManager(boolean)}.
      *
-     * Note: when using the {@link net.dv8tion.jda.hooks.InterfacedEventManager InterfacedEventListener} (default),
+     * Note: when using the {@link net.dv8tion.jda.client.hooks.ClientEventManager ClientEventManager} (default),
      * given listener <b>must</b> be instance of {@link net.dv8tion.jda.hooks.EventListener EventListener}!
      *
      * @param listener
@@ -303,13 +380,32 @@ public class JDAClientBuilder
      */
     public JDAClient buildAsync() throws LoginException, IllegalArgumentException
     {
+        return build(null);
+    }
+
+    protected JDAClient build(Object readyListener) throws LoginException, IllegalArgumentException
+    {
+        StartupProfile profile = new StartupProfile();
+        //The warm-up would bypass the proxy, which is only applied while constructing the client.
+        if (coldStart && !proxySet)
+            ClientRequester.warmUp(apiUrl == null ? Requester.DISCORD_API_PREFIX : apiUrl, profile);
+        //Clients of a custom API do not use the token store.
+        CompletableFuture<JSONObject> tokenStore = coldStart && token == null && apiUrl == null ? JDAClientImpl.prefetchTokenStore() : null;
+        boolean audio = enableVoice && (audioSet || !coldStart);
+
         jdaCreated = true;
         JDAClientImpl client;
+        profile.begin(StartupProfile.Phase.CONSTRUCT);
         if (proxySet)
-            client = new JDAClientImpl(proxyUrl, proxyPort, enableVoice, enableShutdownHook);
+            client = new JDAClientImpl(proxyUrl, proxyPort, audio, enableShutdownHook);
         else
-            client = new JDAClientImpl(enableVoice, enableShutdownHook);
+            client = new JDAClientImpl(audio, enableShutdownHook);
+        client.setStartupProfile(profile);
+        client.setTokenStore(tokenStore);
+        profile.end(StartupProfile.Phase.CONSTRUCT);
         client.setAutoReconnect(reconnect);
+        if (apiUrl != null)
+            client.setApiUrl(apiUrl);
         if (eventManager != null)
         {
             client.setEventManager(eventManager);
@@ -319,6 +415,21 @@ public class JDAClientBuilder
             client.setEventManager(new AnnotatedEventManager());
         }
         listeners.forEach(client::addEventListener);
+        //Registered directly on the client, the listener list of this builder may be shared with other threads.
+        if (readyListener != null)
+            client.addEventListener(readyListener);
+        if (recordingFile != null)
+        {
+            try
+            {
+                client.startRecording(recordingFile);
+            }
+            catch (IOException e)
+            {
+                JDAClientImpl.LOG.warn("Could not start the gateway recording");
+                JDAClientImpl.LOG.log(e);
+            }
+        }
         if (token != null)
             client.login(token, null);
         else
@@ -343,28 +454,23 @@ public class JDAClientBuilder
      */
     public JDAClient buildBlocking() throws LoginException, IllegalArgumentException, InterruptedException
     {
-        //Create our ReadyListener and a thread safe Boolean.
-        AtomicBoolean ready = new AtomicBoolean(false);
+        //Create our ReadyListener and a latch to wait for it.
+        CountDownLatch ready = new CountDownLatch(1);
         ListenerAdapter readyListener = new ListenerAdapter()
         {
             @SubscribeEvent
             @Override
             public void onReady(ReadyEvent event)
             {
-                ready.set(true);
+                ready.countDown();
             }
         };
 
-        //Add it to our list of listeners, start the login process, wait for the ReadyEvent.
-        listeners.add(readyListener);
-        JDAClient client = buildAsync();
-        while(!ready.get())
-        {
-            Thread.sleep(50);
-        }
+        //Start the login process with the ReadyListener, wait for the ReadyEvent.
+        JDAClient client = build(readyListener);
+        ready.await();
 
-        //We have logged in. Remove the temp ready listener from our local list and the jda listener list.
-        listeners.remove(readyListener);
+        //We have logged in. Remove the temp ready listener from the jda listener list.
         client.removeEventListener(readyListener);
         return client;
     }
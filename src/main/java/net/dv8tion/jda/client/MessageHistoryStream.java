@@ -0,0 +1,255 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client;
+
+import net.dv8tion.jda.client.entities.impl.JDAClientImpl;
+import net.dv8tion.jda.entities.Message;
+import net.dv8tion.jda.entities.MessageChannel;
+import net.dv8tion.jda.entities.impl.EntityBuilder;
+import net.dv8tion.jda.entities.impl.JDAImpl;
+import net.dv8tion.jda.requests.Requester;
+import org.json.JSONArray;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iterates over the message history of a {@link net.dv8tion.jda.entities.MessageChannel MessageChannel},
+ * starting with the newest message.
+ * <br>
+ * Pages are retrieved on a worker thread of the client that runs up to {@code prefetch} pages ahead of the consumer,
+ * so the next page is usually available once the current one is processed.
+ * Only that many pages are kept in memory at once; the retrieval waits until the consumer catches up.
+ * <p>
+ * Rate limits are respected by waiting for the retry_after returned by Discord.
+ * A stream that is not iterated to the end should be {@link #close() closed} to stop the retrieval. A stream that
+ * is neither closed nor referenced anymore stops within {@value #PUT_TIMEOUT} milliseconds once its queue is full,
+ * and every retrieval stops when the client shuts down.
+ */
+public class MessageHistoryStream implements Iterator<Message>, AutoCloseable
+{
+    public static final int DEFAULT_PREFETCH = 2;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final long PUT_TIMEOUT = 1000;
+
+    //Identity markers in the page queue
+    private static final List<Message> END = Collections.unmodifiableList(new ArrayList<>(0));
+
+    protected final JDAClientImpl api;
+    protected final BlockingQueue<List<Message>> pages;
+    protected final Fetcher fetcher;
+
+    protected Future<?> task = null;
+    protected Iterator<Message> current = Collections.emptyIterator();
+    protected boolean finished = false;
+
+    /**
+     * Creates a new stream over the history of the given channel.
+     *
+     * @param api
+     *          The JDAClient instance.
+     * @param channel
+     *          The channel to read.
+     * @param prefetch
+     *          The maximum amount of pages that are retrieved ahead of the consumer.
+     * @param pageSize
+     *          The amount of messages per request. At most {@value #MAX_PAGE_SIZE}.
+     */
+    public MessageHistoryStream(JDAClient api, MessageChannel channel, int prefetch, int pageSize)
+    {
+        this(api, channel, prefetch, pageSize, null);
+    }
+
+    /**
+     * Creates a new stream over the history of the given channel.
+     *
+     * @param api
+     *          The JDAClient instance.
+     * @param channel
+     *          The channel to read.
+     * @param prefetch
+     *          The maximum amount of pages that are retrieved ahead of the consumer.
+     * @param pageSize
+     *          The amount of messages per request. At most {@value #MAX_PAGE_SIZE}.
+     * @param beforeMessageId
+     *          Only messages older than the message with this id are returned, or null to start with the newest message.
+     */
+    public MessageHistoryStream(JDAClient api, MessageChannel channel, int prefetch, int pageSize, String beforeMessageId)
+    {
+        if (prefetch < 1)
+            throw new IllegalArgumentException("Prefetch has to be at least 1");
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Page size has to be between 1 and " + MAX_PAGE_SIZE);
+        this.api = (JDAClientImpl) api;
+        this.pages = new ArrayBlockingQueue<>(prefetch);
+        this.fetcher = new Fetcher(this, channel.getId(), pageSize, beforeMessageId);
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (!current.hasNext())
+        {
+            if (finished || fetcher.closed)
+                return false;
+            if (task == null)
+                task = api.getExecutor().submit(fetcher);
+
+            List<Message> page;
+            try
+            {
+                page = pages.take();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                close();
+                return false;
+            }
+
+            if (page == END)
+            {
+                finished = true;
+                if (fetcher.failure != null && !fetcher.closed)
+                    throw fetcher.failure;
+                return false;
+            }
+            current = page.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public Message next()
+    {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        return current.next();
+    }
+
+    /**
+     * Stops the background retrieval. Pages that were already retrieved are dropped.
+     */
+    @Override
+    public void close()
+    {
+        fetcher.closed = true;
+        if (task != null)
+            task.cancel(true);
+        pages.clear();
+        //Wake up a consumer that is waiting on another thread
+        pages.offer(END);
+    }
+
+    //Only keeps a weak reference to the stream, so a stream that is no longer used can be collected and stop the retrieval.
+    protected static class Fetcher implements Runnable
+    {
+        protected final WeakReference<MessageHistoryStream> stream;
+        protected final JDAClientImpl api;
+        protected final BlockingQueue<List<Message>> pages;
+        protected final String channelId;
+        protected final int pageSize;
+        protected String before;
+        protected volatile boolean closed = false;
+        protected volatile RuntimeException failure = null;
+
+        protected Fetcher(MessageHistoryStream stream, String channelId, int pageSize, String before)
+        {
+            this.stream = new WeakReference<>(stream);
+            this.api = stream.api;
+            this.pages = stream.pages;
+            this.channelId = channelId;
+            this.pageSize = pageSize;
+            this.before = before;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                EntityBuilder builder = new EntityBuilder(api);
+                while (!closed)
+                {
+                    //The requests themselves ignore interrupts
+                    if (Thread.interrupted())
+                        throw new InterruptedException();
+                    Requester.Response response = api.getRequester().get(Requester.DISCORD_API_PREFIX + "channels/" + channelId
+                            + "/messages?limit=" + pageSize + (before == null ? "" : "&before=" + before));
+                    if (response.isRateLimit())
+                    {
+                        Thread.sleep(response.getObject().getLong("retry_after"));
+                        continue;
+                    }
+                    if (!response.isOk())
+                    {
+                        failure = new RuntimeException("Could not retrieve message history of channel " + channelId
+                                + ". Server responded with: " + response.code + " - " + response.responseText);
+                        break;
+                    }
+
+                    JSONArray array = response.getArray();
+                    List<Message> page = new ArrayList<>(array.length());
+                    for (int i = 0; i < array.length(); i++)
+                        page.add(builder.createMessage(array.getJSONObject(i)));
+                    if (!page.isEmpty())
+                    {
+                        before = page.get(page.size() - 1).getId();
+                        if (!put(page))
+                            return;
+                    }
+                    if (page.size() < pageSize)
+                        break;
+                }
+            }
+            catch (InterruptedException e)
+            {
+                //Either closed or the client was shut down
+                failure = new IllegalStateException("The retrieval of the message history of channel " + channelId + " was interrupted");
+            }
+            catch (RuntimeException e)
+            {
+                JDAImpl.LOG.log(e);
+                failure = e;
+            }
+
+            try
+            {
+                put(END);
+            }
+            catch (InterruptedException ignored) {}
+        }
+
+        //Waits for room in the queue, but gives up once the stream was closed or is no longer referenced.
+        protected boolean put(List<Message> page) throws InterruptedException
+        {
+            while (!closed && stream.get() != null)
+            {
+                if (pages.offer(page, PUT_TIMEOUT, TimeUnit.MILLISECONDS))
+                    return true;
+            }
+            return false;
+        }
+    }
+}
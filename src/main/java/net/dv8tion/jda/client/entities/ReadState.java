@@ -0,0 +1,67 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.entities;
+
+/**
+ * Represents the read state of a {@link net.dv8tion.jda.entities.MessageChannel MessageChannel} for the logged in account.
+ * <br>
+ * ReadStates are snapshots, they will not change once retrieved.
+ * Use {@link net.dv8tion.jda.client.managers.ReadStateManager#getReadState(String)} to get the current state.
+ */
+public interface ReadState
+{
+    /**
+     * The id of the channel this ReadState belongs to.
+     *
+     * @return
+     *      Never-null String containing the id of the channel.
+     */
+    String getChannelId();
+
+    /**
+     * The id of the last Message in this channel that was acknowledged by the logged in account.
+     *
+     * @return
+     *      Possibly-null String containing the id of the last acknowledged Message.
+     *      Null if no message in this channel was acknowledged yet.
+     */
+    String getLastAckedMessageId();
+
+    /**
+     * The id of the latest known Message in this channel.
+     *
+     * @return
+     *      Possibly-null String containing the id of the latest Message.
+     *      Null if the channel has no known messages.
+     */
+    String getLastMessageId();
+
+    /**
+     * The amount of unacknowledged Messages in this channel that mention the logged in account.
+     *
+     * @return
+     *      The amount of unread mentions.
+     */
+    int getMentionCount();
+
+    /**
+     * Whether or not this channel contains messages that were not acknowledged yet.
+     *
+     * @return
+     *      True if there are unread messages in this channel.
+     */
+    boolean isUnread();
+}
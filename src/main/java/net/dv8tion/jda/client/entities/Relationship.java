@@ -0,0 +1,60 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.entities;
+
+import net.dv8tion.jda.client.JDAClient;
+import net.dv8tion.jda.entities.User;
+
+/**
+ * Represents a friend-, blocked- or pending relationship of the logged in account.
+ */
+public interface Relationship
+{
+    /**
+     * The id of the {@link net.dv8tion.jda.entities.User User} this relationship is with.
+     *
+     * @return
+     *      Never-null String containing the id of the User.
+     */
+    String getUserId();
+
+    /**
+     * The {@link net.dv8tion.jda.entities.User User} this relationship is with.
+     * <br>
+     * Friends do not have to share a Guild with the logged in account, so the User is created from the
+     * data provided by Discord when the relationship is received.
+     *
+     * @return
+     *      Possibly-null User this relationship is with. Null if Discord did not provide the user.
+     */
+    User getUser();
+
+    /**
+     * The {@link net.dv8tion.jda.client.entities.RelationshipType RelationshipType} of this relationship.
+     *
+     * @return
+     *      Never-null type of this relationship.
+     */
+    RelationshipType getType();
+
+    /**
+     * Returns the {@link net.dv8tion.jda.client.JDAClient JDAClient} instance of this Relationship.
+     *
+     * @return
+     *      the corresponding JDAClient instance
+     */
+    JDAClient getJDA();
+}
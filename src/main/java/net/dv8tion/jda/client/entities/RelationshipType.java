@@ -0,0 +1,66 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.entities;
+
+/**
+ * Represents the type of a {@link net.dv8tion.jda.client.entities.Relationship Relationship} between
+ * the logged in account and another {@link net.dv8tion.jda.entities.User User}.
+ */
+public enum RelationshipType
+{
+    NO_RELATIONSHIP(0),
+    FRIEND(1),
+    BLOCKED(2),
+    INCOMING_FRIEND_REQUEST(3),
+    OUTGOING_FRIEND_REQUEST(4),
+    UNKNOWN(-1);
+
+    private final int key;
+
+    RelationshipType(int key)
+    {
+        this.key = key;
+    }
+
+    /**
+     * The Discord key of this type.
+     *
+     * @return
+     *      The key used by Discord to identify this type.
+     */
+    public int getKey()
+    {
+        return key;
+    }
+
+    /**
+     * Retrieves the {@link RelationshipType RelationshipType} with the given Discord key.
+     *
+     * @param key
+     *          The key to look up.
+     * @return
+     *      The matching type or {@link #UNKNOWN} if the key is not known.
+     */
+    public static RelationshipType fromKey(int key)
+    {
+        for (RelationshipType type : values())
+        {
+            if (type.key == key)
+                return type;
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.entities;
+
+import net.dv8tion.jda.entities.Message;
+
+import java.util.List;
+
+/**
+ * Represents one page of the results of a guild message search.
+ * Use {@link net.dv8tion.jda.client.managers.SearchManager#search(net.dv8tion.jda.entities.Guild, String)} to search.
+ */
+public interface SearchPage
+{
+    /**
+     * The messages that matched the search on this page, ordered as returned by Discord.
+     *
+     * @return
+     *      Never-null, unmodifiable list of matching messages.
+     */
+    List<Message> getMessages();
+
+    /**
+     * The position of the first message of this page in the complete result.
+     *
+     * @return
+     *      The offset of this page.
+     */
+    int getOffset();
+
+    /**
+     * The total amount of messages matching the search.
+     *
+     * @return
+     *      The total amount of results.
+     */
+    int getTotalResults();
+
+    /**
+     * Whether or not there are more results after this page.
+     *
+     * @return
+     *      True if there is another page.
+     */
+    boolean hasNextPage();
+}
@@ -19,11 +19,30 @@ import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.http.exceptions.UnirestException;
 import net.dv8tion.jda.client.JDAClient;
+import net.dv8tion.jda.client.MessageHistoryStream;
 import net.dv8tion.jda.client.entities.ClientSelfInfo;
+import net.dv8tion.jda.client.entities.Relationship;
+import net.dv8tion.jda.client.entities.RelationshipType;
+import net.dv8tion.jda.client.hooks.ClientEventManager;
+import net.dv8tion.jda.client.hooks.MonitoredEventManager;
 import net.dv8tion.jda.client.managers.ClientAccountManager;
+import net.dv8tion.jda.client.managers.GuildSyncManager;
+import net.dv8tion.jda.client.managers.MemoryManager;
+import net.dv8tion.jda.client.managers.PresenceManager;
+import net.dv8tion.jda.client.managers.ReadStateManager;
+import net.dv8tion.jda.client.managers.SearchManager;
 import net.dv8tion.jda.client.requests.ClientRequester;
+import net.dv8tion.jda.client.requests.GatewayRateLimiter;
+import net.dv8tion.jda.client.requests.GatewayRecorder;
+import net.dv8tion.jda.client.requests.HealthMonitor;
 import net.dv8tion.jda.client.requests.WebSocketExtension;
+import net.dv8tion.jda.client.utils.LongObjectMap;
+import net.dv8tion.jda.client.utils.StartupProfile;
+import net.dv8tion.jda.client.utils.StartupProfile.Phase;
+import net.dv8tion.jda.entities.MessageChannel;
+import net.dv8tion.jda.entities.User;
 import net.dv8tion.jda.entities.impl.JDAImpl;
+import net.dv8tion.jda.hooks.IEventManager;
 import net.dv8tion.jda.requests.Requester;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONException;
@@ -38,19 +57,48 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class JDAClientImpl extends JDAImpl implements JDAClient
 {
+    protected final LongObjectMap<Relationship> relationships = new LongObjectMap<>();
+    protected final ReadStateManager readStateManager = new ReadStateManager(this);
+    protected final GuildSyncManager guildSyncManager = new GuildSyncManager(this);
+    //Optional subsystems are created on first use to keep the startup short.
+    protected final AtomicReference<PresenceManager> presenceManager = new AtomicReference<>();
+    protected final AtomicReference<SearchManager> searchManager = new AtomicReference<>();
+    protected final AtomicReference<MemoryManager> memoryManager = new AtomicReference<>();
+    protected final GatewayRateLimiter gatewayRateLimiter = new GatewayRateLimiter();
+    protected final HealthMonitor healthMonitor = new HealthMonitor(this);
+    protected final WebSocketExtension webSocketExtension = new WebSocketExtension(this);
+    protected volatile GatewayRecorder recorder = null;
+    protected String apiUrl = Requester.DISCORD_API_PREFIX;
+    protected StartupProfile startupProfile = new StartupProfile();
+    protected volatile CompletableFuture<JSONObject> tokenStore = null;
+    protected ScheduledExecutorService scheduler = null;
+    protected ExecutorService executor = null;
+
     public JDAClientImpl(boolean enableAudio, boolean useShutdownHook)
     {
         super(enableAudio, useShutdownHook);
         requester = new ClientRequester(this);
+        eventManager = new MonitoredEventManager(new ClientEventManager(), healthMonitor);
     }
 
     public JDAClientImpl(String proxyUrl, int proxyPort, boolean enableAudio, boolean useShutdownHook)
     {
         super(proxyUrl, proxyPort, enableAudio, useShutdownHook);
         requester = new ClientRequester(this);
+        eventManager = new MonitoredEventManager(new ClientEventManager(), healthMonitor);
     }
 
     @Override
@@ -65,6 +113,342 @@ public class JDAClientImpl extends JDAImpl implements JDAClient
         return (ClientSelfInfo) selfInfo;
     }
 
+    @Override
+    public List<Relationship> getRelationships()
+    {
+        synchronized (relationships)
+        {
+            return Collections.unmodifiableList(relationships.values());
+        }
+    }
+
+    @Override
+    public List<Relationship> getRelationships(RelationshipType type)
+    {
+        return Collections.unmodifiableList(getRelationships().stream()
+                .filter(r -> r.getType() == type)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public Relationship getRelationship(String userId)
+    {
+        long id;
+        try
+        {
+            id = Long.parseLong(userId);
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+        synchronized (relationships)
+        {
+            return relationships.get(id);
+        }
+    }
+
+    @Override
+    public Relationship getRelationship(User user)
+    {
+        return getRelationship(user.getId());
+    }
+
+    @Override
+    public boolean isFriend(User user)
+    {
+        Relationship relationship = getRelationship(user);
+        return relationship != null && relationship.getType() == RelationshipType.FRIEND;
+    }
+
+    @Override
+    public boolean isBlocked(User user)
+    {
+        Relationship relationship = getRelationship(user);
+        return relationship != null && relationship.getType() == RelationshipType.BLOCKED;
+    }
+
+    @Override
+    public ReadStateManager getReadStateManager()
+    {
+        return readStateManager;
+    }
+
+    @Override
+    public GuildSyncManager getGuildSyncManager()
+    {
+        return guildSyncManager;
+    }
+
+    @Override
+    public PresenceManager getPresenceManager()
+    {
+        return getOrCreate(presenceManager, PresenceManager::new);
+    }
+
+    /**
+     * The {@link net.dv8tion.jda.client.managers.PresenceManager PresenceManager} without creating it.
+     *
+     * @return
+     *      Possibly-null PresenceManager. Null if it was not used yet.
+     */
+    public PresenceManager getPresenceManagerIfCreated()
+    {
+        return presenceManager.get();
+    }
+
+    /**
+     * The {@link net.dv8tion.jda.client.managers.SearchManager SearchManager} without creating it.
+     *
+     * @return
+     *      Possibly-null SearchManager. Null if it was not used yet.
+     */
+    public SearchManager getSearchManagerIfCreated()
+    {
+        return searchManager.get();
+    }
+
+    @Override
+    public SearchManager getSearchManager()
+    {
+        return getOrCreate(searchManager, SearchManager::new);
+    }
+
+    @Override
+    public MemoryManager getMemoryManager()
+    {
+        return getOrCreate(memoryManager, MemoryManager::new);
+    }
+
+    protected <T> T getOrCreate(AtomicReference<T> reference, Function<JDAClientImpl, T> factory)
+    {
+        T value = reference.get();
+        if (value == null)
+        {
+            synchronized (reference)
+            {
+                value = reference.get();
+                if (value == null)
+                {
+                    value = factory.apply(this);
+                    reference.set(value);
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public HealthMonitor getHealthMonitor()
+    {
+        return healthMonitor;
+    }
+
+    @Override
+    public void setEventManager(IEventManager manager)
+    {
+        //Keep the dispatch times measurable no matter which manager is used.
+        super.setEventManager(manager instanceof MonitoredEventManager ? manager : new MonitoredEventManager(manager, healthMonitor));
+    }
+
+    @Override
+    public MessageHistoryStream getHistoryStream(MessageChannel channel)
+    {
+        return getHistoryStream(channel, MessageHistoryStream.DEFAULT_PREFETCH);
+    }
+
+    @Override
+    public MessageHistoryStream getHistoryStream(MessageChannel channel, int prefetch)
+    {
+        return new MessageHistoryStream(this, channel, prefetch, MessageHistoryStream.MAX_PAGE_SIZE);
+    }
+
+    /**
+     * The base url all REST requests of this client are sent to.
+     * The gateway url is discovered through the {@code gateway} endpoint of this url.
+     *
+     * @return
+     *      The API base url, ending with a slash.
+     */
+    public String getApiUrl()
+    {
+        return apiUrl;
+    }
+
+    /**
+     * Changes the base url all REST requests of this client are sent to.
+     * Requests to {@link net.dv8tion.jda.requests.Requester#DISCORD_API_PREFIX} are rewritten to this url.
+     *
+     * @param apiUrl
+     *          The new base url.
+     */
+    public void setApiUrl(String apiUrl)
+    {
+        this.apiUrl = apiUrl.endsWith("/") ? apiUrl : apiUrl + '/';
+    }
+
+    public boolean isDefaultApi()
+    {
+        return apiUrl.equals(Requester.DISCORD_API_PREFIX);
+    }
+
+    @Override
+    public StartupProfile getStartupProfile()
+    {
+        return startupProfile;
+    }
+
+    public void setStartupProfile(StartupProfile startupProfile)
+    {
+        this.startupProfile = startupProfile;
+    }
+
+    @Override
+    public synchronized void startRecording(Path file) throws IOException
+    {
+        stopRecording();
+        recorder = new GatewayRecorder(file);
+    }
+
+    @Override
+    public synchronized void stopRecording()
+    {
+        GatewayRecorder current = recorder;
+        if (current == null)
+            return;
+        recorder = null;
+        try
+        {
+            current.close();
+        }
+        catch (IOException e)
+        {
+            LOG.warn("Error closing gateway recording");
+            LOG.log(e);
+        }
+    }
+
+    @Override
+    public boolean isRecording()
+    {
+        return recorder != null;
+    }
+
+    /**
+     * The currently running recorder.
+     *
+     * @return
+     *      Possibly-null recorder. Null if no recording is running.
+     */
+    public GatewayRecorder getRecorder()
+    {
+        return recorder;
+    }
+
+    public WebSocketExtension getWebSocketExtension()
+    {
+        return webSocketExtension;
+    }
+
+    /**
+     * The rate limiter shared by all payloads the client layer sends over the gateway.
+     *
+     * @return
+     *      The gateway rate limiter of this client.
+     */
+    public GatewayRateLimiter getGatewayRateLimiter()
+    {
+        return gatewayRateLimiter;
+    }
+
+    /**
+     * The single-threaded scheduler used by the client-only subsystems for delayed and batched work.
+     * It is created on first use and stopped on {@link #shutdown(boolean)}.
+     *
+     * @return
+     *      The scheduler of this client.
+     */
+    public synchronized ScheduledExecutorService getScheduler()
+    {
+        if (scheduler == null)
+        {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r ->
+            {
+                Thread t = new Thread(r, "JDA-Client Scheduler");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return scheduler;
+    }
+
+    /**
+     * The thread pool used by the client-only subsystems for blocking requests that run in the background.
+     * It is created on first use and stopped on {@link #shutdown(boolean)}.
+     *
+     * @return
+     *      The worker pool of this client.
+     */
+    public synchronized ExecutorService getExecutor()
+    {
+        if (executor == null)
+        {
+            executor = Executors.newCachedThreadPool(r ->
+            {
+                Thread t = new Thread(r, "JDA-Client Worker");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return executor;
+    }
+
+    @Override
+    public void shutdown(boolean free)
+    {
+        //Send what the ack budget allows right now, waiting for more permits would block the shutdown.
+        try
+        {
+            readStateManager.flushAcks();
+        }
+        catch (Exception e)
+        {
+            LOG.log(e);
+        }
+        int dropped = readStateManager.discardPendingAcks();
+        if (dropped > 0)
+            LOG.warn("Dropped " + dropped + " pending message acknowledgements on shutdown, these channels are only acknowledged locally");
+        healthMonitor.stopMonitoring();
+        guildSyncManager.shutdown();
+        synchronized (this)
+        {
+            if (scheduler != null)
+            {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+            if (executor != null)
+            {
+                executor.shutdownNow();
+                executor = null;
+            }
+            stopRecording();
+        }
+        super.shutdown(free);
+    }
+
+    /**
+     * The backing map of all relationships keyed by user id.
+     * Any access has to be synchronized on the returned map.
+     *
+     * @return
+     *      The relationship map.
+     */
+    public LongObjectMap<Relationship> getRelationshipMap()
+    {
+        return relationships;
+    }
+
     public void login(String email, String password, String twoFactorAuthCode) throws LoginException
     {
         if (email == null || email.trim().isEmpty() || password == null || password.trim().isEmpty())
@@ -73,8 +457,23 @@ public class JDAClientImpl extends JDAImpl implements JDAClient
         String token = null;
         File tokenFile = new File("tokens.json");
         JSONObject tokenObj = new JSONObject();
+        //Accounts of a custom API (e.g. a test server) must not read or replace the tokens of real accounts.
+        boolean useTokenStore = isDefaultApi();
 
-        if(tokenFile.exists())
+        startupProfile.begin(Phase.TOKEN_STORE);
+        if(!useTokenStore)
+        {
+            tokenStore = null;
+        }
+        else if(tokenStore != null)
+        {
+            tokenObj = joinTokenStore();
+            if(tokenObj != null && tokenObj.has(email) && !tokenObj.isNull(email))
+            {
+                token = tokenObj.getString(email);
+            }
+        }
+        else if(tokenFile.exists())
         {
             tokenObj = readJson(Paths.get("tokens.json"));
             if(tokenObj != null && tokenObj.has(email) && !tokenObj.isNull(email))
@@ -82,11 +481,14 @@ public class JDAClientImpl extends JDAImpl implements JDAClient
                 token = tokenObj.getString(email);
             }
         }
+        startupProfile.end(Phase.TOKEN_STORE);
 
+        startupProfile.begin(Phase.AUTHENTICATE);
         if(token != null)
         {
-            if(validate(token))
+            if(isDefaultApi() ? validate(token) : validateWithApi(token))
             {
+                startupProfile.end(Phase.AUTHENTICATE);
                 login(token, null);
                 return;
             }
@@ -94,7 +496,7 @@ public class JDAClientImpl extends JDAImpl implements JDAClient
 
         try
         {
-            HttpResponse<String> response = Unirest.post(Requester.DISCORD_API_PREFIX + "auth/login")
+            HttpResponse<String> response = Unirest.post(apiUrl + "auth/login")
                     .header("Content-Type", "application/json")
                     .header("user-agent", ClientRequester.LOGIN_USER_AGENT)
                     .body(new JSONObject()
@@ -113,7 +515,7 @@ public class JDAClientImpl extends JDAImpl implements JDAClient
                     throw new LoginException("Given account is protected with Two-Factor Authentication. Please provide a valid code.");
                 String ticket = obj.getString("ticket");
 
-                response = Unirest.post(Requester.DISCORD_API_PREFIX + "auth/mfa/totp")
+                response = Unirest.post(apiUrl + "auth/mfa/totp")
                         .header("Content-Type", "application/json")
                         .header("user-agent", ClientRequester.LOGIN_USER_AGENT)
                         .body(new JSONObject()
@@ -126,17 +528,21 @@ public class JDAClientImpl extends JDAImpl implements JDAClient
                 token = new JSONObject(response.getBody()).getString("token");
             }
 
-            if(tokenFile.exists())
-                tokenObj = readJson(Paths.get("tokens.json")); // Retrieve token object to override
-
-            if(tokenObj == null)
+            if(useTokenStore)
             {
-                LOG.warn("Object contained in tokens.json was malformed!");
-                tokenObj = new JSONObject();
-            }
+                if(tokenFile.exists())
+                    tokenObj = readJson(Paths.get("tokens.json")); // Retrieve token object to override
+
+                if(tokenObj == null)
+                {
+                    LOG.warn("Object contained in tokens.json was malformed!");
+                    tokenObj = new JSONObject();
+                }
 
-            tokenObj.put(email, token);
-            writeJson(Paths.get("tokens.json"), tokenObj); // Override json file with new token
+                tokenObj.put(email, token);
+                writeJson(Paths.get("tokens.json"), tokenObj); // Override json file with new token
+            }
+            startupProfile.end(Phase.AUTHENTICATE);
 
             login(token, null);
         }
@@ -149,9 +555,89 @@ public class JDAClientImpl extends JDAImpl implements JDAClient
     @Override
     public void login(String token, int[] unusedShardOption) throws LoginException
     {
+        startupProfile.begin(Phase.CONNECT);
+        //A fast gateway can send READY before super.login returns, so the phase has to be open already.
+        startupProfile.begin(Phase.READY);
         super.login(token, null);
-        client.setCustomHandler(new WebSocketExtension(this));
+        client.setCustomHandler(webSocketExtension);
         accountManager = new ClientAccountManager(this);
+        startupProfile.end(Phase.CONNECT);
+    }
+
+    /**
+     * Starts reading tokens.json in the background, so it is already parsed when
+     * {@link #login(String, String, String)} needs it. Used by the cold start mode.
+     *
+     * @return
+     *      A future for the parsed token store, to be passed to {@link #setTokenStore(CompletableFuture)}.
+     */
+    public static CompletableFuture<JSONObject> prefetchTokenStore()
+    {
+        Path file = Paths.get("tokens.json");
+        return CompletableFuture.supplyAsync(() -> Files.exists(file) ? readJson(file) : new JSONObject());
+    }
+
+    public void setTokenStore(CompletableFuture<JSONObject> tokenStore)
+    {
+        this.tokenStore = tokenStore;
+    }
+
+    /**
+     * The amount of accounts in the token store that is still held by this client.
+     * <br>
+     * Only a {@link #setTokenStore(CompletableFuture) prefetched} token store is kept until login,
+     * the one read by {@link #login(String, String, String)} is released once the token was looked up.
+     *
+     * @return
+     *      The amount of retained token store entries, 0 if the prefetch did not finish yet.
+     */
+    public int getRetainedTokenStoreSize()
+    {
+        CompletableFuture<JSONObject> store = tokenStore;
+        if (store == null || !store.isDone() || store.isCompletedExceptionally() || store.isCancelled())
+            return 0;
+        JSONObject tokens = store.join();
+        return tokens == null ? 0 : tokens.length();
+    }
+
+    protected JSONObject joinTokenStore()
+    {
+        try
+        {
+            return tokenStore.join();
+        }
+        catch (CompletionException e)
+        {
+            LOG.log(e.getCause());
+            return null;
+        }
+        finally
+        {
+            tokenStore = null;
+        }
+    }
+
+    /**
+     * Checks whether or not the given token is valid at the configured {@link #getApiUrl() API url}.
+     *
+     * @param token
+     *          The token to check.
+     * @return
+     *      True if the token is valid.
+     */
+    protected boolean validateWithApi(String token)
+    {
+        try
+        {
+            return Unirest.get(apiUrl + "users/@me")
+                    .header("authorization", token)
+                    .header("user-agent", ClientRequester.CLIENT_USER_AGENT)
+                    .asString().getStatus() == 200;
+        }
+        catch (UnirestException e)
+        {
+            return false;
+        }
     }
 
     /**
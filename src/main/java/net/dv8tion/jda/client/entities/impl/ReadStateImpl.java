@@ -0,0 +1,105 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.entities.impl;
+
+import net.dv8tion.jda.client.entities.ReadState;
+
+public class ReadStateImpl implements ReadState
+{
+    protected final long channelId;
+    protected long lastAckedMessageId;
+    protected long lastMessageId;
+    protected int mentionCount;
+
+    public ReadStateImpl(long channelId)
+    {
+        this.channelId = channelId;
+    }
+
+    public ReadStateImpl(ReadStateImpl other)
+    {
+        this.channelId = other.channelId;
+        this.lastAckedMessageId = other.lastAckedMessageId;
+        this.lastMessageId = other.lastMessageId;
+        this.mentionCount = other.mentionCount;
+    }
+
+    @Override
+    public String getChannelId()
+    {
+        return Long.toString(channelId);
+    }
+
+    @Override
+    public String getLastAckedMessageId()
+    {
+        return lastAckedMessageId == 0 ? null : Long.toString(lastAckedMessageId);
+    }
+
+    @Override
+    public String getLastMessageId()
+    {
+        return lastMessageId == 0 ? null : Long.toString(lastMessageId);
+    }
+
+    @Override
+    public int getMentionCount()
+    {
+        return mentionCount;
+    }
+
+    @Override
+    public boolean isUnread()
+    {
+        return lastMessageId > lastAckedMessageId;
+    }
+
+    public long getChannelIdLong()
+    {
+        return channelId;
+    }
+
+    public long getLastAckedMessageIdLong()
+    {
+        return lastAckedMessageId;
+    }
+
+    public long getLastMessageIdLong()
+    {
+        return lastMessageId;
+    }
+
+    public void setLastAckedMessageId(long lastAckedMessageId)
+    {
+        this.lastAckedMessageId = lastAckedMessageId;
+    }
+
+    public void setLastMessageId(long lastMessageId)
+    {
+        this.lastMessageId = lastMessageId;
+    }
+
+    public void setMentionCount(int mentionCount)
+    {
+        this.mentionCount = mentionCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ReadState(" + channelId + ')';
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.entities.impl;
+
+import net.dv8tion.jda.client.JDAClient;
+import net.dv8tion.jda.client.entities.Relationship;
+import net.dv8tion.jda.client.entities.RelationshipType;
+import net.dv8tion.jda.entities.User;
+
+public class RelationshipImpl implements Relationship
+{
+    protected final JDAClientImpl api;
+    protected final long userId;
+    protected volatile RelationshipType type;
+    protected volatile User user;
+
+    public RelationshipImpl(JDAClientImpl api, long userId, RelationshipType type, User user)
+    {
+        this.api = api;
+        this.userId = userId;
+        this.type = type;
+        this.user = user;
+    }
+
+    @Override
+    public String getUserId()
+    {
+        return Long.toString(userId);
+    }
+
+    @Override
+    public User getUser()
+    {
+        return user;
+    }
+
+    @Override
+    public RelationshipType getType()
+    {
+        return type;
+    }
+
+    @Override
+    public JDAClient getJDA()
+    {
+        return api;
+    }
+
+    public long getUserIdLong()
+    {
+        return userId;
+    }
+
+    public void setType(RelationshipType type)
+    {
+        this.type = type;
+    }
+
+    public void setUser(User user)
+    {
+        this.user = user;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (!(o instanceof RelationshipImpl))
+            return false;
+        RelationshipImpl other = (RelationshipImpl) o;
+        return other.api == api && other.userId == userId;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Long.hashCode(userId);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Relationship:" + type + '(' + userId + ')';
+    }
+}
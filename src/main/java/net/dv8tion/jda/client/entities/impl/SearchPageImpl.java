@@ -0,0 +1,80 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.entities.impl;
+
+import net.dv8tion.jda.client.entities.SearchPage;
+import net.dv8tion.jda.entities.Message;
+
+import java.util.Collections;
+import java.util.List;
+
+public class SearchPageImpl implements SearchPage
+{
+    protected final List<Message> messages;
+    protected final int offset;
+    protected final int resultCount;
+    protected final int totalResults;
+
+    public SearchPageImpl(List<Message> messages, int offset, int resultCount, int totalResults)
+    {
+        this.messages = Collections.unmodifiableList(messages);
+        this.offset = offset;
+        this.resultCount = resultCount;
+        this.totalResults = totalResults;
+    }
+
+    @Override
+    public List<Message> getMessages()
+    {
+        return messages;
+    }
+
+    @Override
+    public int getOffset()
+    {
+        return offset;
+    }
+
+    @Override
+    public int getTotalResults()
+    {
+        return totalResults;
+    }
+
+    @Override
+    public boolean hasNextPage()
+    {
+        return resultCount > 0 && offset + resultCount < totalResults;
+    }
+
+    /**
+     * The amount of result groups on this page. This is used as offset step for the next page and can differ
+     * from the amount of messages if Discord could not return a hit.
+     *
+     * @return
+     *      The amount of results on this page.
+     */
+    public int getResultCount()
+    {
+        return resultCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SearchPage(" + offset + '/' + totalResults + ')';
+    }
+}
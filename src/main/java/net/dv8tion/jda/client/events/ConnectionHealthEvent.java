@@ -0,0 +1,76 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.events;
+
+import net.dv8tion.jda.client.JDAClient;
+import net.dv8tion.jda.client.requests.HealthMonitor.Metric;
+import net.dv8tion.jda.client.utils.ConnectionHealth;
+import net.dv8tion.jda.events.Event;
+
+import java.util.Set;
+
+/**
+ * <b><u>ConnectionHealthEvent</u></b><br>
+ * Fired if the set of {@link net.dv8tion.jda.client.requests.HealthMonitor.Metric metrics} that exceed their
+ * threshold in the {@link net.dv8tion.jda.client.requests.HealthMonitor HealthMonitor} changed.<br>
+ * <br>
+ * Use: Detect a degrading gateway connection or slow listeners.
+ */
+public class ConnectionHealthEvent extends Event
+{
+    protected final ConnectionHealth health;
+    protected final Set<Metric> breached;
+
+    public ConnectionHealthEvent(JDAClient api, int responseNumber, ConnectionHealth health, Set<Metric> breached)
+    {
+        super(api, responseNumber);
+        this.health = health;
+        this.breached = breached;
+    }
+
+    @Override
+    public JDAClient getJDA()
+    {
+        return (JDAClient) api;
+    }
+
+    public ConnectionHealth getHealth()
+    {
+        return health;
+    }
+
+    /**
+     * The metrics that currently exceed their threshold.
+     *
+     * @return
+     *      Unmodifiable, possibly-empty set of metrics.
+     */
+    public Set<Metric> getBreachedMetrics()
+    {
+        return breached;
+    }
+
+    /**
+     * Whether or not all metrics are within their thresholds again.
+     *
+     * @return
+     *      True if no metric exceeds its threshold.
+     */
+    public boolean isHealthy()
+    {
+        return breached.isEmpty();
+    }
+}
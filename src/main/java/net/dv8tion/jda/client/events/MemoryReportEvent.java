@@ -0,0 +1,63 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.events;
+
+import net.dv8tion.jda.client.JDAClient;
+import net.dv8tion.jda.client.utils.MemoryReport;
+import net.dv8tion.jda.events.Event;
+
+/**
+ * <b><u>MemoryReportEvent</u></b><br>
+ * Fired if the {@link net.dv8tion.jda.client.managers.MemoryManager MemoryManager} created a periodic
+ * {@link net.dv8tion.jda.client.utils.MemoryReport MemoryReport}.<br>
+ * <br>
+ * Use: Collect cache metrics.
+ */
+public class MemoryReportEvent extends Event
+{
+    protected final MemoryReport report;
+    protected final long evictedBytes;
+
+    public MemoryReportEvent(JDAClient api, int responseNumber, MemoryReport report, long evictedBytes)
+    {
+        super(api, responseNumber);
+        this.report = report;
+        this.evictedBytes = evictedBytes;
+    }
+
+    @Override
+    public JDAClient getJDA()
+    {
+        return (JDAClient) api;
+    }
+
+    public MemoryReport getReport()
+    {
+        return report;
+    }
+
+    /**
+     * The estimated amount of bytes that were evicted from optional caches after this report was created,
+     * because it exceeded the memory budget.
+     *
+     * @return
+     *      The estimated amount of evicted bytes.
+     */
+    public long getEvictedBytes()
+    {
+        return evictedBytes;
+    }
+}
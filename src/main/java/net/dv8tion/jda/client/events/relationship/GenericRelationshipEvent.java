@@ -0,0 +1,55 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.events.relationship;
+
+import net.dv8tion.jda.client.JDAClient;
+import net.dv8tion.jda.client.entities.Relationship;
+import net.dv8tion.jda.entities.User;
+import net.dv8tion.jda.events.Event;
+
+/**
+ * <b><u>GenericRelationshipEvent</u></b><br>
+ * Fired whenever a {@link net.dv8tion.jda.client.entities.Relationship Relationship} of the logged in account changes.<br>
+ * Every RelationshipEvent is an instance of this event and can be casted. (no exceptions)<br>
+ * <br>
+ * Use: Detect any RelationshipEvent.
+ */
+public abstract class GenericRelationshipEvent extends Event
+{
+    protected final Relationship relationship;
+
+    public GenericRelationshipEvent(JDAClient api, int responseNumber, Relationship relationship)
+    {
+        super(api, responseNumber);
+        this.relationship = relationship;
+    }
+
+    @Override
+    public JDAClient getJDA()
+    {
+        return (JDAClient) api;
+    }
+
+    public Relationship getRelationship()
+    {
+        return relationship;
+    }
+
+    public User getUser()
+    {
+        return relationship.getUser();
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.events.relationship;
+
+import net.dv8tion.jda.client.JDAClient;
+import net.dv8tion.jda.client.entities.Relationship;
+
+/**
+ * <b><u>RelationshipAddEvent</u></b><br>
+ * Fired if a new {@link net.dv8tion.jda.client.entities.Relationship Relationship} was created.
+ * This includes incoming and outgoing friend requests as well as blocking a User.<br>
+ * <br>
+ * Use: Detect new friend requests or blocks.
+ */
+public class RelationshipAddEvent extends GenericRelationshipEvent
+{
+    public RelationshipAddEvent(JDAClient api, int responseNumber, Relationship relationship)
+    {
+        super(api, responseNumber, relationship);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.events.relationship;
+
+import net.dv8tion.jda.client.JDAClient;
+import net.dv8tion.jda.client.entities.Relationship;
+import net.dv8tion.jda.client.entities.RelationshipType;
+
+/**
+ * <b><u>RelationshipUpdateEvent</u></b><br>
+ * Fired if the {@link net.dv8tion.jda.client.entities.RelationshipType RelationshipType} of an existing
+ * {@link net.dv8tion.jda.client.entities.Relationship Relationship} changed. (e.g. a friend request was accepted)<br>
+ * <br>
+ * Use: Detect accepted friend requests.
+ */
+public class RelationshipUpdateEvent extends GenericRelationshipEvent
+{
+    protected final RelationshipType previousType;
+
+    public RelationshipUpdateEvent(JDAClient api, int responseNumber, Relationship relationship, RelationshipType previousType)
+    {
+        super(api, responseNumber, relationship);
+        this.previousType = previousType;
+    }
+
+    public RelationshipType getPreviousType()
+    {
+        return previousType;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.hooks;
+
+import net.dv8tion.jda.entities.impl.JDAImpl;
+import net.dv8tion.jda.events.Event;
+import net.dv8tion.jda.hooks.EventListener;
+import net.dv8tion.jda.hooks.IEventManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The default {@link net.dv8tion.jda.hooks.IEventManager IEventManager} of a
+ * {@link net.dv8tion.jda.client.JDAClient JDAClient}. Like the
+ * {@link net.dv8tion.jda.hooks.InterfacedEventManager InterfacedEventManager} it requires listeners to implement
+ * {@link net.dv8tion.jda.hooks.EventListener EventListener} and passes every event to them.
+ * <p>
+ * The registered listeners are kept in an immutable snapshot that is replaced on every change, so listeners can
+ * be added and removed at any time (also from within a listener) without blocking or disturbing a running dispatch.
+ * <br>
+ * Listeners that implement {@link net.dv8tion.jda.client.hooks.TypedEventListener TypedEventListener} only
+ * receive the event types they declare. For every event class, the listeners that receive it are resolved once
+ * per snapshot, so dispatching an event does not lock, does not allocate and skips listeners that do not handle it.
+ */
+public class ClientEventManager implements IEventManager
+{
+    //Listening to Event matches every event.
+    protected static final Class<?>[] ALL_EVENTS = { Event.class };
+
+    protected volatile Registry registry = new Registry(new EventListener[0], new Class<?>[0][]);
+
+    @Override
+    public void register(Object listener)
+    {
+        if (!(listener instanceof EventListener))
+            throw new IllegalArgumentException("Listener must implement EventListener");
+        Class<?>[] types = listener instanceof TypedEventListener
+                ? ((TypedEventListener) listener).getEventTypes().toArray(new Class<?>[0])
+                : ALL_EVENTS;
+        synchronized (this)
+        {
+            Registry current = registry;
+            int length = current.listeners.length;
+            EventListener[] listeners = Arrays.copyOf(current.listeners, length + 1);
+            Class<?>[][] interests = Arrays.copyOf(current.interests, length + 1);
+            listeners[length] = (EventListener) listener;
+            interests[length] = types;
+            registry = new Registry(listeners, interests);
+        }
+    }
+
+    @Override
+    public synchronized void unregister(Object listener)
+    {
+        Registry current = registry;
+        int length = current.listeners.length;
+        for (int i = 0; i < length; i++)
+        {
+            if (current.listeners[i] == listener)
+            {
+                EventListener[] listeners = new EventListener[length - 1];
+                Class<?>[][] interests = new Class<?>[length - 1][];
+                System.arraycopy(current.listeners, 0, listeners, 0, i);
+                System.arraycopy(current.listeners, i + 1, listeners, i, length - i - 1);
+                System.arraycopy(current.interests, 0, interests, 0, i);
+                System.arraycopy(current.interests, i + 1, interests, i, length - i - 1);
+                registry = new Registry(listeners, interests);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void handle(Event event)
+    {
+        Registry current = registry;
+        EventListener[] targets = current.dispatch.get(event.getClass());
+        if (targets == null)
+            targets = current.dispatch.computeIfAbsent(event.getClass(), current::resolve);
+        for (EventListener listener : targets)
+        {
+            try
+            {
+                listener.onEvent(event);
+            }
+            catch (Throwable throwable)
+            {
+                JDAImpl.LOG.fatal("One of the EventListeners had an uncaught exception");
+                JDAImpl.LOG.log(throwable);
+            }
+        }
+    }
+
+    @Override
+    public List<Object> getRegisteredListeners()
+    {
+        //Snapshots are never modified, so they can be handed out directly.
+        return Collections.unmodifiableList(Arrays.asList((Object[]) registry.listeners));
+    }
+
+    protected static class Registry
+    {
+        protected final EventListener[] listeners;
+        protected final Class<?>[][] interests;
+        protected final Map<Class<?>, EventListener[]> dispatch = new ConcurrentHashMap<>();
+
+        protected Registry(EventListener[] listeners, Class<?>[][] interests)
+        {
+            this.listeners = listeners;
+            this.interests = interests;
+        }
+
+        protected EventListener[] resolve(Class<?> eventClass)
+        {
+            EventListener[] targets = new EventListener[listeners.length];
+            int count = 0;
+            for (int i = 0; i < listeners.length; i++)
+            {
+                for (Class<?> type : interests[i])
+                {
+                    if (type.isAssignableFrom(eventClass))
+                    {
+                        targets[count++] = listeners[i];
+                        break;
+                    }
+                }
+            }
+            return Arrays.copyOf(targets, count);
+        }
+    }
+}
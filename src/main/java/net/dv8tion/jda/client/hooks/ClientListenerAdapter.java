@@ -0,0 +1,68 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.hooks;
+
+import net.dv8tion.jda.client.events.ConnectionHealthEvent;
+import net.dv8tion.jda.client.events.MemoryReportEvent;
+import net.dv8tion.jda.client.events.relationship.GenericRelationshipEvent;
+import net.dv8tion.jda.client.events.relationship.RelationshipAddEvent;
+import net.dv8tion.jda.client.events.relationship.RelationshipRemoveEvent;
+import net.dv8tion.jda.client.events.relationship.RelationshipUpdateEvent;
+import net.dv8tion.jda.events.Event;
+import net.dv8tion.jda.hooks.ListenerAdapter;
+
+/**
+ * An extension of JDA's {@link net.dv8tion.jda.hooks.ListenerAdapter ListenerAdapter} that additionally
+ * provides methods for the events that are only fired for client accounts.
+ */
+public abstract class ClientListenerAdapter extends ListenerAdapter
+{
+    //Relationship Events
+    public void onRelationshipAdd(RelationshipAddEvent event) {}
+    public void onRelationshipUpdate(RelationshipUpdateEvent event) {}
+    public void onRelationshipRemove(RelationshipRemoveEvent event) {}
+
+    //Client Events
+    public void onMemoryReport(MemoryReportEvent event) {}
+    public void onConnectionHealth(ConnectionHealthEvent event) {}
+
+    //Generic Events
+    public void onGenericRelationship(GenericRelationshipEvent event) {}
+
+    @Override
+    public void onEvent(Event event)
+    {
+        super.onEvent(event);
+
+        //Relationship Events
+        if (event instanceof RelationshipAddEvent)
+            onRelationshipAdd((RelationshipAddEvent) event);
+        else if (event instanceof RelationshipUpdateEvent)
+            onRelationshipUpdate((RelationshipUpdateEvent) event);
+        else if (event instanceof RelationshipRemoveEvent)
+            onRelationshipRemove((RelationshipRemoveEvent) event);
+
+        //Client Events
+        else if (event instanceof MemoryReportEvent)
+            onMemoryReport((MemoryReportEvent) event);
+        else if (event instanceof ConnectionHealthEvent)
+            onConnectionHealth((ConnectionHealthEvent) event);
+
+        //Generic Events
+        if (event instanceof GenericRelationshipEvent)
+            onGenericRelationship((GenericRelationshipEvent) event);
+    }
+}
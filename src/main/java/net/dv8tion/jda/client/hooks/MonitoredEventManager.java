@@ -0,0 +1,84 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.hooks;
+
+import net.dv8tion.jda.client.requests.HealthMonitor;
+import net.dv8tion.jda.events.Event;
+import net.dv8tion.jda.hooks.IEventManager;
+
+import java.util.List;
+
+/**
+ * Wraps the {@link net.dv8tion.jda.hooks.IEventManager IEventManager} of a
+ * {@link net.dv8tion.jda.client.JDAClient JDAClient} to report the dispatch times of all events to the
+ * {@link net.dv8tion.jda.client.requests.HealthMonitor HealthMonitor}.
+ * <br>
+ * The JDAClient installs this wrapper itself, {@link net.dv8tion.jda.JDA#setEventManager(IEventManager)} wraps
+ * the given manager.
+ */
+public class MonitoredEventManager implements IEventManager
+{
+    protected final IEventManager delegate;
+    protected final HealthMonitor monitor;
+
+    public MonitoredEventManager(IEventManager delegate, HealthMonitor monitor)
+    {
+        this.delegate = delegate;
+        this.monitor = monitor;
+    }
+
+    public IEventManager getDelegate()
+    {
+        return delegate;
+    }
+
+    @Override
+    public void register(Object listener)
+    {
+        delegate.register(listener);
+    }
+
+    @Override
+    public void unregister(Object listener)
+    {
+        delegate.unregister(listener);
+    }
+
+    @Override
+    public void handle(Event event)
+    {
+        if (!monitor.isEnabled())
+        {
+            delegate.handle(event);
+            return;
+        }
+        long start = System.nanoTime();
+        try
+        {
+            delegate.handle(event);
+        }
+        finally
+        {
+            monitor.onDispatch(start, System.nanoTime());
+        }
+    }
+
+    @Override
+    public List<Object> getRegisteredListeners()
+    {
+        return delegate.getRegisteredListeners();
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.hooks;
+
+import net.dv8tion.jda.events.Event;
+import net.dv8tion.jda.hooks.EventListener;
+
+import java.util.Collection;
+
+/**
+ * An {@link net.dv8tion.jda.hooks.EventListener EventListener} that declares which events it handles.
+ * <br>
+ * The {@link net.dv8tion.jda.client.hooks.ClientEventManager ClientEventManager} only dispatches events to it
+ * that are an instance of one of the declared types. All other listeners receive every event.
+ */
+public interface TypedEventListener extends EventListener
+{
+    /**
+     * The event types this listener handles, including all of their subtypes.
+     * This is only queried once, when the listener is registered.
+     *
+     * @return
+     *      The handled event types.
+     */
+    Collection<Class<? extends Event>> getEventTypes();
+}
@@ -75,6 +75,34 @@ public class ClientAccountManager extends AccountManager
         return (ClientAccountManager) super.setAvatar(avatar);
     }
 
+    /**
+     * Sets the game that is shown for the connected account.
+     * The update is sent through the {@link net.dv8tion.jda.client.managers.PresenceManager PresenceManager},
+     * so it may be delayed or coalesced with other presence updates.
+     *
+     * @param game
+     *          The name of the game, or null to remove the game.
+     */
+    @Override
+    public void setGame(String game)
+    {
+        ((JDAClient) api).getPresenceManager().setGame(game);
+    }
+
+    /**
+     * Sets whether or not the connected account is shown as idle.
+     * The update is sent through the {@link net.dv8tion.jda.client.managers.PresenceManager PresenceManager},
+     * so it may be delayed or coalesced with other presence updates.
+     *
+     * @param idle
+     *          True to show the account as idle.
+     */
+    @Override
+    public void setIdle(boolean idle)
+    {
+        ((JDAClient) api).getPresenceManager().setIdle(idle);
+    }
+
     /**
      * Updates the profile of the connected account, sends the changed data to the Discord server.
      * <br>
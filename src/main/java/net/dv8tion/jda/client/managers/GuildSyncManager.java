@@ -0,0 +1,354 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.managers;
+
+import net.dv8tion.jda.client.entities.impl.JDAClientImpl;
+import net.dv8tion.jda.entities.Guild;
+import net.dv8tion.jda.entities.impl.JDAImpl;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Requests the member lists of {@link net.dv8tion.jda.entities.Guild Guilds} for the logged in account.
+ * <br>
+ * User accounts only receive a partial member list in READY. Members of a guild are loaded once
+ * {@link #sync(Guild...)} is called for it; nothing is requested before that.
+ * <p>
+ * Requests are collected for a short time and then sent as few gateway payloads (op 12) as possible,
+ * each containing up to {@value #MAX_GUILDS_PER_REQUEST} guild ids. The payloads share the client's
+ * {@link net.dv8tion.jda.client.requests.GatewayRateLimiter GatewayRateLimiter}.
+ * Members are added to the cache as the GUILD_SYNC events for the individual guilds arrive.
+ * If a guild does not receive its GUILD_SYNC within {@value #SYNC_TIMEOUT} milliseconds, its sync fails with a
+ * {@link java.util.concurrent.TimeoutException TimeoutException} and the guild can be requested again.
+ */
+public class GuildSyncManager
+{
+    public static final int MAX_GUILDS_PER_REQUEST = 100;
+    public static final long COLLECT_DELAY = 100;
+    public static final long NOT_CONNECTED_DELAY = 1000;
+    public static final long SYNC_TIMEOUT = 30000;
+
+    protected final JDAClientImpl api;
+    protected final Set<String> queued = new LinkedHashSet<>();
+    protected final Map<String, Long> requested = new HashMap<>();
+    protected final Set<String> synced = new HashSet<>();
+    protected final Map<String, CompletableFuture<Guild>> futures = new HashMap<>();
+    protected boolean drainScheduled = false;
+
+    public GuildSyncManager(JDAClientImpl api)
+    {
+        this.api = api;
+    }
+
+    /**
+     * Requests the members of the given guilds.
+     * Guilds that are already synced or waiting for their sync are not requested again.
+     *
+     * @param guilds
+     *          The guilds to sync.
+     * @return
+     *      A future that completes once all given guilds are synced.
+     */
+    public CompletableFuture<Void> sync(Guild... guilds)
+    {
+        return sync(Arrays.asList(guilds));
+    }
+
+    /**
+     * Requests the members of the given guilds.
+     * Guilds that are already synced or waiting for their sync are not requested again.
+     *
+     * @param guilds
+     *          The guilds to sync.
+     * @return
+     *      A future that completes once all given guilds are synced.
+     */
+    public CompletableFuture<Void> sync(Collection<Guild> guilds)
+    {
+        List<CompletableFuture<Guild>> pending = new ArrayList<>(guilds.size());
+        synchronized (this)
+        {
+            for (Guild guild : guilds)
+                pending.add(getFuture(guild.getId()));
+            scheduleDrain(COLLECT_DELAY);
+        }
+        return CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[pending.size()]));
+    }
+
+    /**
+     * Requests the members of the given guild and returns a future for its completion.
+     *
+     * @param guild
+     *          The guild to sync.
+     * @return
+     *      A future that completes with the guild once its members are loaded.
+     */
+    public CompletableFuture<Guild> syncGuild(Guild guild)
+    {
+        synchronized (this)
+        {
+            CompletableFuture<Guild> future = getFuture(guild.getId());
+            scheduleDrain(COLLECT_DELAY);
+            return future;
+        }
+    }
+
+    /**
+     * Whether or not the members of the given guild have been loaded.
+     *
+     * @param guild
+     *          The guild to check.
+     * @return
+     *      True if the guild was synced.
+     */
+    public synchronized boolean isSynced(Guild guild)
+    {
+        return synced.contains(guild.getId());
+    }
+
+    /**
+     * The amount of guilds that were requested but did not receive their members yet.
+     *
+     * @return
+     *      The amount of pending guild syncs.
+     */
+    public synchronized int getPendingCount()
+    {
+        return queued.size() + requested.size();
+    }
+
+    /**
+     * Called once the members of the guild with the given id were loaded into the cache.
+     *
+     * @param guildId
+     *          The id of the synced guild.
+     */
+    public void onGuildSynced(String guildId)
+    {
+        CompletableFuture<Guild> future;
+        synchronized (this)
+        {
+            requested.remove(guildId);
+            queued.remove(guildId);
+            synced.add(guildId);
+            future = futures.remove(guildId);
+        }
+        if (future != null)
+            future.complete(api.getGuildById(guildId));
+    }
+
+    /**
+     * Called when a new session was started (READY). The cache was rebuilt, so all guilds that were
+     * synced or requested in the previous session are requested again.
+     *
+     * @param guildIds
+     *          The ids of all guilds contained in the new READY payload.
+     */
+    public void onNewSession(Set<String> guildIds)
+    {
+        synchronized (this)
+        {
+            if (synced.isEmpty() && requested.isEmpty() && queued.isEmpty())
+                return;
+            Set<String> resync = new LinkedHashSet<>(requested.keySet());
+            resync.addAll(synced);
+            resync.addAll(queued);
+            requested.clear();
+            synced.clear();
+            queued.clear();
+
+            for (String guildId : resync)
+            {
+                if (guildIds.contains(guildId))
+                {
+                    queued.add(guildId);
+                }
+                else
+                {
+                    //We lost access to the guild while we were disconnected
+                    CompletableFuture<Guild> future = futures.remove(guildId);
+                    if (future != null)
+                        future.completeExceptionally(new IllegalStateException("The guild " + guildId + " is no longer available"));
+                }
+            }
+            scheduleDrain(COLLECT_DELAY);
+        }
+    }
+
+    /**
+     * Called when the guild with the given id was left or became unavailable.
+     * Its members are no longer cached, so it counts as not synced and a pending sync fails.
+     *
+     * @param guildId
+     *          The id of the removed guild.
+     */
+    public void onGuildRemoved(String guildId)
+    {
+        CompletableFuture<Guild> future;
+        synchronized (this)
+        {
+            synced.remove(guildId);
+            requested.remove(guildId);
+            queued.remove(guildId);
+            future = futures.remove(guildId);
+        }
+        if (future != null)
+            future.completeExceptionally(new IllegalStateException("The guild " + guildId + " is no longer available"));
+    }
+
+    /**
+     * Fails all pending syncs and forgets all guilds. Called when the client shuts down.
+     */
+    public void shutdown()
+    {
+        List<CompletableFuture<Guild>> pending;
+        synchronized (this)
+        {
+            pending = new ArrayList<>(futures.values());
+            futures.clear();
+            queued.clear();
+            requested.clear();
+            synced.clear();
+        }
+        IllegalStateException cause = new IllegalStateException("The client was shut down");
+        pending.forEach(future -> future.completeExceptionally(cause));
+    }
+
+    //Has to be called while holding the lock of this manager
+    protected CompletableFuture<Guild> getFuture(String guildId)
+    {
+        if (synced.contains(guildId))
+            return CompletableFuture.completedFuture(api.getGuildById(guildId));
+        CompletableFuture<Guild> future = futures.get(guildId);
+        if (future == null)
+        {
+            future = new CompletableFuture<>();
+            futures.put(guildId, future);
+        }
+        if (!requested.containsKey(guildId))
+            queued.add(guildId);
+        return future;
+    }
+
+    //Has to be called while holding the lock of this manager
+    protected void scheduleDrain(long delay)
+    {
+        if (drainScheduled || queued.isEmpty())
+            return;
+        drainScheduled = true;
+        api.getScheduler().schedule(() ->
+        {
+            try
+            {
+                drain();
+            }
+            catch (Exception e)
+            {
+                JDAImpl.LOG.log(e);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    protected void scheduleTimeoutCheck()
+    {
+        api.getScheduler().schedule(() ->
+        {
+            try
+            {
+                expireRequests();
+            }
+            catch (Exception e)
+            {
+                JDAImpl.LOG.log(e);
+            }
+        }, SYNC_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    protected void expireRequests()
+    {
+        List<CompletableFuture<Guild>> expired = new ArrayList<>();
+        List<String> expiredIds = new ArrayList<>();
+        synchronized (this)
+        {
+            long now = System.nanoTime();
+            Iterator<Map.Entry<String, Long>> it = requested.entrySet().iterator();
+            while (it.hasNext())
+            {
+                Map.Entry<String, Long> entry = it.next();
+                if (TimeUnit.NANOSECONDS.toMillis(now - entry.getValue()) < SYNC_TIMEOUT)
+                    continue;
+                it.remove();
+                expiredIds.add(entry.getKey());
+                CompletableFuture<Guild> future = futures.remove(entry.getKey());
+                if (future != null)
+                    expired.add(future);
+            }
+        }
+        if (!expiredIds.isEmpty())
+            JDAImpl.LOG.warn("Did not receive GUILD_SYNC in time for guilds " + expiredIds);
+        TimeoutException cause = new TimeoutException("The guild was not synced within " + SYNC_TIMEOUT + " ms");
+        expired.forEach(future -> future.completeExceptionally(cause));
+    }
+
+    protected synchronized void drain()
+    {
+        drainScheduled = false;
+        while (!queued.isEmpty())
+        {
+            //Discord closes the connection if op 12 is sent before the session is identified.
+            if (!api.getWebSocketExtension().isSessionReady())
+            {
+                scheduleDrain(NOT_CONNECTED_DELAY);
+                return;
+            }
+            long wait = api.getGatewayRateLimiter().tryAcquire();
+            if (wait > 0)
+            {
+                scheduleDrain(wait);
+                return;
+            }
+
+            JSONArray ids = new JSONArray();
+            Iterator<String> it = queued.iterator();
+            while (it.hasNext() && ids.length() < MAX_GUILDS_PER_REQUEST)
+            {
+                String guildId = it.next();
+                it.remove();
+                requested.put(guildId, System.nanoTime());
+                ids.put(guildId);
+            }
+            api.getClient().send(new JSONObject()
+                    .put("op", 12)
+                    .put("d", ids)
+                    .toString());
+            scheduleTimeoutCheck();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.managers;
+
+import net.dv8tion.jda.client.entities.SearchPage;
+import net.dv8tion.jda.client.entities.impl.JDAClientImpl;
+import net.dv8tion.jda.client.events.MemoryReportEvent;
+import net.dv8tion.jda.client.utils.MemoryReport;
+import net.dv8tion.jda.client.utils.MemoryReport.CacheType;
+import net.dv8tion.jda.entities.Guild;
+import net.dv8tion.jda.entities.impl.GuildImpl;
+import net.dv8tion.jda.entities.impl.JDAImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimates how much memory the caches of a {@link net.dv8tion.jda.client.JDAClient JDAClient} retain.
+ * <br>
+ * A sample only reads the sizes of the internal maps, so it is cheap enough to be taken periodically.
+ * Periodic samples are fired as {@link net.dv8tion.jda.client.events.MemoryReportEvent MemoryReportEvent}.
+ * <p>
+ * If a {@link #setMemoryBudget(long) memory budget} is set, optional caches
+ * (see {@link net.dv8tion.jda.client.utils.MemoryReport.CacheType#isOptional()}) are evicted whenever a sample
+ * exceeds it.
+ */
+public class MemoryManager
+{
+    public static final int MAX_SAMPLE_ATTEMPTS = 3;
+
+    protected final JDAClientImpl api;
+    protected final Map<CacheType, Long> lastCounts = new EnumMap<>(CacheType.class);
+    protected final Map<CacheType, Integer> growthStreaks = new EnumMap<>(CacheType.class);
+    protected volatile MemoryReport lastReport = null;
+    protected volatile long memoryBudget = -1;
+    protected ScheduledFuture<?> samplingTask = null;
+
+    public MemoryManager(JDAClientImpl api)
+    {
+        this.api = api;
+    }
+
+    /**
+     * Creates a new {@link net.dv8tion.jda.client.utils.MemoryReport MemoryReport} of the current caches.
+     * This does not evict any caches, even if the memory budget is exceeded.
+     *
+     * @return
+     *      A new MemoryReport.
+     */
+    public synchronized MemoryReport sample()
+    {
+        Map<CacheType, Long> counts = new EnumMap<>(CacheType.class);
+        counts.put(CacheType.GUILDS, (long) api.getGuildMap().size());
+        counts.put(CacheType.TEXT_CHANNELS, (long) api.getChannelMap().size());
+        counts.put(CacheType.VOICE_CHANNELS, (long) api.getVoiceChannelMap().size());
+        counts.put(CacheType.PRIVATE_CHANNELS, (long) api.getPmChannelMap().size());
+        counts.put(CacheType.USERS, (long) api.getUserMap().size());
+        long members = 0, roles = 0;
+        //JDA's maps are modified by the WebSocket thread without locking, so copying them may fail and is retried.
+        for (int attempt = 1; ; attempt++)
+        {
+            try
+            {
+                members = 0;
+                roles = 0;
+                for (Guild guild : new ArrayList<>(api.getGuildMap().values()))
+                {
+                    members += ((GuildImpl) guild).getUserRoles().size();
+                    roles += ((GuildImpl) guild).getRolesMap().size();
+                }
+                break;
+            }
+            catch (ConcurrentModificationException e)
+            {
+                if (attempt == MAX_SAMPLE_ATTEMPTS)
+                {
+                    //Keep the previous estimation instead of failing the sample.
+                    members = lastCounts.getOrDefault(CacheType.MEMBERS, 0L);
+                    roles = lastCounts.getOrDefault(CacheType.ROLES, 0L);
+                    break;
+                }
+            }
+        }
+        counts.put(CacheType.MEMBERS, members);
+        counts.put(CacheType.ROLES, roles);
+        counts.put(CacheType.SELF_INFO, api.getSelfInfo() == null ? 0L : 1L);
+        counts.put(CacheType.TOKEN_STORE, (long) api.getRetainedTokenStoreSize());
+        synchronized (api.getRelationshipMap())
+        {
+            counts.put(CacheType.RELATIONSHIPS, (long) api.getRelationshipMap().size());
+        }
+        counts.put(CacheType.READ_STATES, (long) api.getReadStateManager().getCacheSize());
+        long searchMessages = 0;
+        //The search manager is created on first use, counting its cache must not create it.
+        SearchManager searchManager = api.getSearchManagerIfCreated();
+        List<CompletableFuture<SearchPage>> pages = searchManager == null
+                ? Collections.emptyList()
+                : searchManager.getCache().values();
+        for (CompletableFuture<SearchPage> page : pages)
+        {
+            if (page.isDone() && !page.isCompletedExceptionally() && !page.isCancelled())
+                searchMessages += page.join().getMessages().size();
+        }
+        counts.put(CacheType.SEARCH_CACHE, (long) pages.size());
+
+        Map<CacheType, Long> bytes = new EnumMap<>(CacheType.class);
+        for (Map.Entry<CacheType, Long> entry : counts.entrySet())
+        {
+            CacheType type = entry.getKey();
+            long count = entry.getValue();
+            bytes.put(type, count * type.getBytesPerEntity());
+
+            Long last = lastCounts.put(type, count);
+            growthStreaks.put(type, last != null && count > last ? growthStreaks.getOrDefault(type, 0) + 1 : 0);
+        }
+        bytes.merge(CacheType.SEARCH_CACHE, searchMessages * MemoryReport.BYTES_PER_SEARCH_MESSAGE, Long::sum);
+        lastReport = new MemoryReport(System.currentTimeMillis(), counts, bytes, growthStreaks);
+        return lastReport;
+    }
+
+    /**
+     * The report created by the most recent sample.
+     *
+     * @return
+     *      Possibly-null MemoryReport. Null if no sample was taken yet.
+     */
+    public MemoryReport getLastReport()
+    {
+        return lastReport;
+    }
+
+    /**
+     * Starts taking a sample in the given interval. Each sample is fired as
+     * {@link net.dv8tion.jda.client.events.MemoryReportEvent MemoryReportEvent} and, if needed, used to
+     * enforce the memory budget. An already running periodic sampling is replaced.
+     *
+     * @param interval
+     *          The time between two samples.
+     * @param unit
+     *          The unit of the interval.
+     */
+    public synchronized void startSampling(long interval, TimeUnit unit)
+    {
+        stopSampling();
+        samplingTask = api.getScheduler().scheduleAtFixedRate(() ->
+        {
+            try
+            {
+                MemoryReport report = sample();
+                long evicted = enforceBudget(report);
+                api.getEventManager().handle(new MemoryReportEvent(api, api.getResponseTotal(), report, evicted));
+            }
+            catch (Exception e)
+            {
+                JDAImpl.LOG.log(e);
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * Stops the periodic sampling.
+     */
+    public synchronized void stopSampling()
+    {
+        if (samplingTask != null)
+        {
+            samplingTask.cancel(false);
+            samplingTask = null;
+        }
+    }
+
+    /**
+     * Sets the estimated amount of bytes the caches of this client may use before optional caches are evicted.
+     * The budget is checked after every periodic sample and on {@link #enforceBudget()}.
+     * <p>
+     * Default: -1 (no budget)
+     *
+     * @param bytes
+     *          The memory budget in bytes, or -1 to disable the budget.
+     */
+    public void setMemoryBudget(long bytes)
+    {
+        this.memoryBudget = bytes;
+    }
+
+    public long getMemoryBudget()
+    {
+        return memoryBudget;
+    }
+
+    /**
+     * Takes a sample and evicts optional caches if it exceeds the memory budget.
+     *
+     * @return
+     *      The estimated amount of evicted bytes.
+     */
+    public long enforceBudget()
+    {
+        return enforceBudget(sample());
+    }
+
+    protected long enforceBudget(MemoryReport report)
+    {
+        long budget = memoryBudget;
+        if (budget < 0)
+            return 0;
+        long excess = report.getTotalEstimatedBytes() - budget;
+        long evicted = 0;
+
+        //Cheapest to rebuild first: search results can simply be requested again.
+        SearchManager searchManager = api.getSearchManagerIfCreated();
+        if (excess > 0 && searchManager != null && report.getCount(CacheType.SEARCH_CACHE) > 0)
+        {
+            searchManager.getCache().clear();
+            long freed = report.getEstimatedBytes(CacheType.SEARCH_CACHE);
+            evicted += freed;
+            excess -= freed;
+        }
+        if (excess > 0 && report.getCount(CacheType.READ_STATES) > 0)
+        {
+            int removed = api.getReadStateManager().removeStale();
+            long freed = removed * CacheType.READ_STATES.getBytesPerEntity();
+            evicted += freed;
+            excess -= freed;
+        }
+        if (excess > 0)
+            JDAImpl.LOG.warn("Caches exceed the memory budget by ~" + excess + " bytes after evicting all optional caches");
+        return evicted;
+    }
+}
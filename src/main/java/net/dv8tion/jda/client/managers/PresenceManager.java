@@ -0,0 +1,266 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.managers;
+
+import net.dv8tion.jda.OnlineStatus;
+import net.dv8tion.jda.client.entities.impl.JDAClientImpl;
+import net.dv8tion.jda.client.requests.GatewayRateLimiter;
+import net.dv8tion.jda.entities.impl.JDAImpl;
+import net.dv8tion.jda.entities.impl.SelfInfoImpl;
+import org.json.JSONObject;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends presence (game and idle status) updates of the logged in account without exceeding Discord's limits.
+ * <br>
+ * Updates are not sent immediately. Only the newest requested presence is kept, and it is sent as soon as both the
+ * presence limit ({@value #PRESENCE_BUDGET} updates per minute) and the client's
+ * {@link net.dv8tion.jda.client.requests.GatewayRateLimiter gateway budget} allow it.
+ * Any update that is replaced before it could be sent is dropped and counted as coalesced.
+ * <br>
+ * The game and status of the {@link net.dv8tion.jda.entities.SelfInfo SelfInfo} are updated once the presence was sent.
+ * A new session starts with the default presence, so the requested presence is sent again after every READY.
+ */
+public class PresenceManager
+{
+    public static final int PRESENCE_BUDGET = 5;
+
+    protected final JDAClientImpl api;
+    protected final GatewayRateLimiter presenceLimiter = new GatewayRateLimiter(PRESENCE_BUDGET, 60, TimeUnit.SECONDS);
+    protected final AtomicLong submitted = new AtomicLong();
+    protected final AtomicLong coalesced = new AtomicLong();
+    protected final AtomicLong sent = new AtomicLong();
+
+    protected String game = null;
+    protected boolean idle = false;
+    protected boolean dirty = false;
+    protected boolean sendScheduled = false;
+    protected String sentGame = null;
+    protected boolean sentIdle = false;
+
+    public PresenceManager(JDAClientImpl api)
+    {
+        this.api = api;
+    }
+
+    /**
+     * Sets the game that is shown for the logged in account.
+     *
+     * @param game
+     *          The name of the game, or null to remove the game.
+     */
+    public void setGame(String game)
+    {
+        synchronized (this)
+        {
+            setPresence(game, idle);
+        }
+    }
+
+    /**
+     * Sets whether or not the logged in account is shown as idle.
+     *
+     * @param idle
+     *          True to show the account as idle.
+     */
+    public void setIdle(boolean idle)
+    {
+        synchronized (this)
+        {
+            setPresence(game, idle);
+        }
+    }
+
+    /**
+     * Sets game and idle status of the logged in account with a single update.
+     *
+     * @param game
+     *          The name of the game, or null to remove the game.
+     * @param idle
+     *          True to show the account as idle.
+     */
+    public synchronized void setPresence(String game, boolean idle)
+    {
+        submitted.incrementAndGet();
+        if (dirty)
+            coalesced.incrementAndGet();
+        this.game = game;
+        this.idle = idle;
+
+        //Going back to the presence that was sent last cancels the pending update.
+        dirty = !Objects.equals(game, sentGame) || idle != sentIdle;
+        if (dirty)
+            scheduleSend(0);
+        else
+            coalesced.incrementAndGet();
+    }
+
+    /**
+     * The game that will be shown once all pending updates were sent.
+     *
+     * @return
+     *      Possibly-null name of the game.
+     */
+    public synchronized String getGame()
+    {
+        return game;
+    }
+
+    /**
+     * Whether or not the account will be shown as idle once all pending updates were sent.
+     *
+     * @return
+     *      True if the account is idle.
+     */
+    public synchronized boolean isIdle()
+    {
+        return idle;
+    }
+
+    /**
+     * Whether or not there is an update that was not sent yet.
+     *
+     * @return
+     *      True if an update is pending.
+     */
+    public synchronized boolean isPending()
+    {
+        return dirty;
+    }
+
+    /**
+     * The amount of presence changes that were requested, including the resends after a
+     * {@link #onNewSession() new session}.
+     *
+     * @return
+     *      The amount of submitted updates.
+     */
+    public long getSubmittedCount()
+    {
+        return submitted.get();
+    }
+
+    /**
+     * The amount of requested presence changes that were replaced by a newer one before they could be sent,
+     * or that did not change the presence that was sent last.
+     * <br>
+     * Every submitted update is either coalesced, sent or {@link #isPending() pending}.
+     *
+     * @return
+     *      The amount of coalesced updates.
+     */
+    public long getCoalescedCount()
+    {
+        return coalesced.get();
+    }
+
+    /**
+     * The amount of presence updates that were actually sent to Discord.
+     *
+     * @return
+     *      The amount of sent updates.
+     */
+    public long getSentCount()
+    {
+        return sent.get();
+    }
+
+    /**
+     * Called when a new session was started (READY). Discord shows the default presence for a new session,
+     * so the requested presence is sent again unless it is the default.
+     * <br>
+     * Such a resend counts as a {@link #getSubmittedCount() submitted} update unless an update was already pending.
+     */
+    public synchronized void onNewSession()
+    {
+        sentGame = null;
+        sentIdle = false;
+        boolean resend = game != null || idle;
+        if (resend && !dirty)
+            submitted.incrementAndGet();
+        else if (!resend && dirty)
+            //A pending update back to the default presence is already shown by the new session.
+            coalesced.incrementAndGet();
+        dirty = resend;
+        if (dirty)
+            scheduleSend(0);
+    }
+
+    //Has to be called while holding the lock of this manager
+    protected void scheduleSend(long delay)
+    {
+        if (sendScheduled)
+            return;
+        sendScheduled = true;
+        api.getScheduler().schedule(() ->
+        {
+            try
+            {
+                send();
+            }
+            catch (Exception e)
+            {
+                JDAImpl.LOG.log(e);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    protected synchronized void send()
+    {
+        sendScheduled = false;
+        if (!dirty)
+            return;
+        //Discord closes the connection if op 3 is sent before the session is identified.
+        if (!api.getWebSocketExtension().isSessionReady())
+        {
+            scheduleSend(GuildSyncManager.NOT_CONNECTED_DELAY);
+            return;
+        }
+        //Check both budgets before taking a permit so a presence permit is not wasted while the gateway is saturated.
+        long wait = Math.max(presenceLimiter.getWaitTime(), api.getGatewayRateLimiter().getWaitTime());
+        if (wait == 0)
+        {
+            presenceLimiter.tryAcquire();
+            wait = api.getGatewayRateLimiter().tryAcquire();
+        }
+        if (wait > 0)
+        {
+            scheduleSend(wait);
+            return;
+        }
+
+        api.getClient().send(new JSONObject()
+                .put("op", 3)
+                .put("d", new JSONObject()
+                        .put("idle_since", idle ? System.currentTimeMillis() : JSONObject.NULL)
+                        .put("game", game == null ? JSONObject.NULL : new JSONObject().put("name", game)))
+                .toString());
+        sentGame = game;
+        sentIdle = idle;
+        dirty = false;
+        sent.incrementAndGet();
+
+        SelfInfoImpl self = (SelfInfoImpl) api.getSelfInfo();
+        if (self != null)
+        {
+            self.setCurrentGame(game);
+            self.setOnlineStatus(idle ? OnlineStatus.AWAY : OnlineStatus.ONLINE);
+        }
+    }
+}
@@ -0,0 +1,463 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.managers;
+
+import net.dv8tion.jda.client.entities.ReadState;
+import net.dv8tion.jda.client.entities.impl.JDAClientImpl;
+import net.dv8tion.jda.client.entities.impl.ReadStateImpl;
+import net.dv8tion.jda.client.utils.LongObjectMap;
+import net.dv8tion.jda.client.utils.SlidingWindowRateLimiter;
+import net.dv8tion.jda.entities.MessageChannel;
+import net.dv8tion.jda.entities.impl.JDAImpl;
+import net.dv8tion.jda.requests.Requester;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of the read state (last acknowledged message and unread mentions) of every channel
+ * visible to the logged in account, and acknowledges messages on behalf of it.
+ * <br>
+ * The state is seeded from the READY payload and updated from MESSAGE_CREATE and MESSAGE_ACK, so no requests
+ * have to be made to find out which channels contain unread messages.
+ * <p>
+ * Outgoing acknowledgements are batched: calls to {@link #ack(String, String)} only record the newest message per
+ * channel and the requests are sent together after {@link #setAckDelay(long) the ack delay} passed.
+ * Acknowledging the same channel multiple times within that window results in a single request.
+ * <br>
+ * Batches are sent on the client's worker threads and paced to {@value #ACK_BUDGET} requests per
+ * {@value #ACK_WINDOW} milliseconds, acknowledgements that exceed the budget wait for the next free permit.
+ */
+public class ReadStateManager
+{
+    public static final long DEFAULT_ACK_DELAY = 1000;
+    public static final int ACK_BUDGET = 5;
+    public static final long ACK_WINDOW = 5000;
+
+    protected final JDAClientImpl api;
+    protected final LongObjectMap<ReadStateImpl> readStates = new LongObjectMap<>(256);
+    protected final LongObjectMap<Long> pendingAcks = new LongObjectMap<>();
+    protected final SlidingWindowRateLimiter ackLimiter = new SlidingWindowRateLimiter(ACK_BUDGET, ACK_WINDOW, TimeUnit.MILLISECONDS);
+    protected volatile long ackDelay = DEFAULT_ACK_DELAY;
+    protected volatile String ackToken = null;
+    protected boolean flushScheduled = false;
+
+    public ReadStateManager(JDAClientImpl api)
+    {
+        this.api = api;
+    }
+
+    /**
+     * Returns the current {@link net.dv8tion.jda.client.entities.ReadState ReadState} of the channel with the given id.
+     *
+     * @param channelId
+     *          The id of the channel.
+     * @return
+     *      Possibly-null snapshot of the ReadState. Null if nothing is known about the channel.
+     */
+    public ReadState getReadState(String channelId)
+    {
+        long id = parseId(channelId);
+        synchronized (readStates)
+        {
+            ReadStateImpl state = readStates.get(id);
+            return state == null ? null : new ReadStateImpl(state);
+        }
+    }
+
+    /**
+     * Returns the current {@link net.dv8tion.jda.client.entities.ReadState ReadState} of the given channel.
+     *
+     * @param channel
+     *          The channel.
+     * @return
+     *      Possibly-null snapshot of the ReadState. Null if nothing is known about the channel.
+     */
+    public ReadState getReadState(MessageChannel channel)
+    {
+        return getReadState(channel.getId());
+    }
+
+    /**
+     * Returns snapshots of the {@link net.dv8tion.jda.client.entities.ReadState ReadStates} of all known channels.
+     *
+     * @return
+     *      Never-null, unmodifiable list of ReadStates.
+     */
+    public List<ReadState> getReadStates()
+    {
+        return getReadStates(false);
+    }
+
+    /**
+     * Returns snapshots of the {@link net.dv8tion.jda.client.entities.ReadState ReadStates} of all channels
+     * that contain unread messages.
+     *
+     * @return
+     *      Never-null, unmodifiable list of unread ReadStates.
+     */
+    public List<ReadState> getUnreadStates()
+    {
+        return getReadStates(true);
+    }
+
+    /**
+     * The sum of unread mentions in all channels.
+     *
+     * @return
+     *      The total amount of unread mentions.
+     */
+    public int getTotalMentionCount()
+    {
+        int count = 0;
+        synchronized (readStates)
+        {
+            for (ReadStateImpl state : readStates.values())
+                count += state.getMentionCount();
+        }
+        return count;
+    }
+
+    /**
+     * Acknowledges all messages in the channel with the given id up to (and including) the given message.
+     * <br>
+     * The local state is updated immediately, the request to Discord is sent with the next batch.
+     *
+     * @param channelId
+     *          The id of the channel.
+     * @param messageId
+     *          The id of the newest message to acknowledge.
+     */
+    public void ack(String channelId, String messageId)
+    {
+        long channel = parseId(channelId);
+        long message = parseId(messageId);
+        setAcked(channel, message);
+
+        synchronized (pendingAcks)
+        {
+            Long pending = pendingAcks.get(channel);
+            if (pending == null || pending < message)
+                pendingAcks.put(channel, message);
+            scheduleFlush(ackDelay);
+        }
+    }
+
+    /**
+     * Acknowledges all known messages in the given channel.
+     * If no message of the channel is known, this does nothing.
+     *
+     * @param channel
+     *          The channel to acknowledge.
+     */
+    public void ack(MessageChannel channel)
+    {
+        long lastMessage;
+        synchronized (readStates)
+        {
+            ReadStateImpl state = readStates.get(parseId(channel.getId()));
+            if (state == null || !state.isUnread())
+                return;
+            lastMessage = state.getLastMessageIdLong();
+        }
+        ack(channel.getId(), Long.toString(lastMessage));
+    }
+
+    /**
+     * Sets the time acknowledgements are collected before they are sent together.
+     * <p>
+     * Default: {@value #DEFAULT_ACK_DELAY}
+     *
+     * @param millis
+     *          The delay in milliseconds.
+     */
+    public void setAckDelay(long millis)
+    {
+        if (millis < 0)
+            throw new IllegalArgumentException("The ack delay may not be negative");
+        this.ackDelay = millis;
+    }
+
+    /**
+     * The amount of channels that have an acknowledgement waiting to be sent.
+     *
+     * @return
+     *      The amount of pending acknowledgements.
+     */
+    public int getPendingAckCount()
+    {
+        synchronized (pendingAcks)
+        {
+            return pendingAcks.size();
+        }
+    }
+
+    /**
+     * Sends the pending acknowledgements now instead of waiting for the ack delay to pass.
+     * Only as many requests as the ack budget allows are sent, the remaining acknowledgements are sent
+     * once permits become available.
+     * This blocks until the sent requests are done.
+     */
+    public void flushAcks()
+    {
+        long[] channels;
+        long[] messages;
+        synchronized (pendingAcks)
+        {
+            flushScheduled = false;
+            channels = pendingAcks.keys();
+            messages = new long[channels.length];
+            for (int i = 0; i < channels.length; i++)
+                messages[i] = pendingAcks.get(channels[i]);
+            pendingAcks.clear();
+        }
+
+        for (int i = 0; i < channels.length; i++)
+        {
+            long wait = ackLimiter.tryAcquire();
+            if (wait > 0)
+            {
+                requeue(channels, messages, i, wait);
+                return;
+            }
+            Requester.Response response = sendAck(channels[i], messages[i]);
+            if (response.isRateLimit())
+            {
+                requeue(channels, messages, i, response.getObject().optLong("retry_after", ackDelay));
+                return;
+            }
+            else if (!response.isOk())
+            {
+                JDAImpl.LOG.warn("Could not acknowledge message " + messages[i] + " in channel " + channels[i] + ": " + response.code + " - " + response.responseText);
+            }
+            else if (response.getObject() != null && response.getObject().has("token"))
+            {
+                ackToken = response.getObject().isNull("token") ? null : response.getObject().getString("token");
+            }
+        }
+    }
+
+    /**
+     * Drops all acknowledgements that were not sent yet. The local read states stay acknowledged.
+     *
+     * @return
+     *      The amount of dropped acknowledgements.
+     */
+    public int discardPendingAcks()
+    {
+        synchronized (pendingAcks)
+        {
+            int count = pendingAcks.size();
+            pendingAcks.clear();
+            return count;
+        }
+    }
+
+    /**
+     * Removes all known read states. Used when a new READY payload is received.
+     */
+    public void clear()
+    {
+        synchronized (readStates)
+        {
+            readStates.clear();
+        }
+    }
+
+    public void setReadState(long channelId, long lastAckedMessageId, int mentionCount)
+    {
+        synchronized (readStates)
+        {
+            ReadStateImpl state = getOrCreate(channelId);
+            state.setLastAckedMessageId(lastAckedMessageId);
+            state.setMentionCount(mentionCount);
+        }
+    }
+
+    public void setLastMessageId(long channelId, long messageId)
+    {
+        synchronized (readStates)
+        {
+            ReadStateImpl state = getOrCreate(channelId);
+            if (state.getLastMessageIdLong() < messageId)
+                state.setLastMessageId(messageId);
+        }
+    }
+
+    public void onMessage(long channelId, long messageId, boolean ownMessage, boolean mentioned)
+    {
+        synchronized (readStates)
+        {
+            ReadStateImpl state = getOrCreate(channelId);
+            if (state.getLastMessageIdLong() < messageId)
+                state.setLastMessageId(messageId);
+
+            //Sending a message implicitly acknowledges the channel.
+            if (ownMessage)
+            {
+                state.setLastAckedMessageId(messageId);
+                state.setMentionCount(0);
+            }
+            else if (mentioned)
+            {
+                state.setMentionCount(state.getMentionCount() + 1);
+            }
+        }
+    }
+
+    public void setAcked(long channelId, long messageId)
+    {
+        synchronized (readStates)
+        {
+            ReadStateImpl state = getOrCreate(channelId);
+            if (state.getLastAckedMessageIdLong() < messageId)
+                state.setLastAckedMessageId(messageId);
+            if (state.getLastMessageIdLong() < messageId)
+                state.setLastMessageId(messageId);
+            state.setMentionCount(0);
+        }
+    }
+
+    /**
+     * The amount of channels a read state is kept for.
+     *
+     * @return
+     *      The amount of cached read states.
+     */
+    public int getCacheSize()
+    {
+        synchronized (readStates)
+        {
+            return readStates.size();
+        }
+    }
+
+    /**
+     * Removes the read states of all channels that are no longer known to JDA,
+     * for example because the guild was left or the private channel was closed.
+     *
+     * @return
+     *      The amount of removed read states.
+     */
+    public int removeStale()
+    {
+        int removed = 0;
+        synchronized (readStates)
+        {
+            for (long channelId : readStates.keys())
+            {
+                String id = Long.toString(channelId);
+                if (api.getTextChannelById(id) == null && api.getPrivateChannelById(id) == null)
+                {
+                    readStates.remove(channelId);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    public void remove(long channelId)
+    {
+        synchronized (readStates)
+        {
+            readStates.remove(channelId);
+        }
+    }
+
+    protected Requester.Response sendAck(long channelId, long messageId)
+    {
+        String token = ackToken;
+        return api.getRequester().post(Requester.DISCORD_API_PREFIX + "channels/" + channelId + "/messages/" + messageId + "/ack",
+                new JSONObject().put("token", token == null ? JSONObject.NULL : token));
+    }
+
+    protected void requeue(long[] channels, long[] messages, int from, long delay)
+    {
+        //Put the unsent acks back unless a newer one was queued meanwhile and try again once we are allowed to.
+        synchronized (pendingAcks)
+        {
+            for (int i = from; i < channels.length; i++)
+            {
+                Long pending = pendingAcks.get(channels[i]);
+                if (pending == null || pending < messages[i])
+                    pendingAcks.put(channels[i], messages[i]);
+            }
+            scheduleFlush(delay);
+        }
+    }
+
+    //Has to be called while holding the pendingAcks lock
+    protected void scheduleFlush(long delay)
+    {
+        if (flushScheduled)
+            return;
+        flushScheduled = true;
+        //The scheduler only keeps the time, the blocking requests run on a worker so other tasks are not delayed.
+        api.getScheduler().schedule(() -> api.getExecutor().submit(() ->
+        {
+            try
+            {
+                flushAcks();
+            }
+            catch (Exception e)
+            {
+                JDAImpl.LOG.log(e);
+            }
+        }), delay, TimeUnit.MILLISECONDS);
+    }
+
+    protected List<ReadState> getReadStates(boolean unreadOnly)
+    {
+        List<ReadState> states = new ArrayList<>();
+        synchronized (readStates)
+        {
+            for (ReadStateImpl state : readStates.values())
+            {
+                if (!unreadOnly || state.isUnread())
+                    states.add(new ReadStateImpl(state));
+            }
+        }
+        return Collections.unmodifiableList(states);
+    }
+
+    //Has to be called while holding the readStates lock
+    protected ReadStateImpl getOrCreate(long channelId)
+    {
+        ReadStateImpl state = readStates.get(channelId);
+        if (state == null)
+        {
+            state = new ReadStateImpl(channelId);
+            readStates.put(channelId, state);
+        }
+        return state;
+    }
+
+    protected static long parseId(String id)
+    {
+        try
+        {
+            return Long.parseLong(id);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Provided id is not a valid snowflake: " + id);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.managers;
+
+import net.dv8tion.jda.client.entities.SearchPage;
+import net.dv8tion.jda.client.entities.impl.JDAClientImpl;
+import net.dv8tion.jda.client.entities.impl.SearchPageImpl;
+import net.dv8tion.jda.client.utils.ExpiringLruCache;
+import net.dv8tion.jda.entities.Guild;
+import net.dv8tion.jda.entities.Message;
+import net.dv8tion.jda.entities.impl.EntityBuilder;
+import net.dv8tion.jda.requests.Requester;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches the messages of a {@link net.dv8tion.jda.entities.Guild Guild} using Discord's search index.
+ * <br>
+ * Results are returned page by page by a {@link SearchPaginator SearchPaginator}, which requests the next page
+ * in the background while the current one is processed.
+ * <p>
+ * Pages are cached by guild, query and offset for {@value #DEFAULT_CACHE_TTL} seconds after they arrived, so repeating
+ * a search within that time does not cause any requests.
+ * If Discord did not finish indexing the guild yet, the request is repeated up to {@value #MAX_INDEX_RETRIES} times.
+ */
+public class SearchManager
+{
+    public static final int DEFAULT_CACHE_SIZE = 100;
+    public static final long DEFAULT_CACHE_TTL = 30;
+    public static final int MAX_INDEX_RETRIES = 5;
+    public static final long DEFAULT_INDEX_RETRY_DELAY = 2000;
+
+    protected final JDAClientImpl api;
+    protected final ExpiringLruCache<String, CompletableFuture<SearchPage>> cache = new ExpiringLruCache<>(DEFAULT_CACHE_SIZE, DEFAULT_CACHE_TTL, TimeUnit.SECONDS);
+
+    public SearchManager(JDAClientImpl api)
+    {
+        this.api = api;
+    }
+
+    /**
+     * Searches the messages of the given guild for the given content.
+     * The first page is requested immediately.
+     *
+     * @param guild
+     *          The guild to search in.
+     * @param content
+     *          The content to search for.
+     * @return
+     *      A {@link SearchPaginator SearchPaginator} over the result pages.
+     */
+    public SearchPaginator search(Guild guild, String content)
+    {
+        if (content == null || content.trim().isEmpty())
+            throw new IllegalArgumentException("Search content may not be null or empty");
+        return new SearchPaginator(guild.getId(), content);
+    }
+
+    /**
+     * The cache used for search results.
+     * Pages are cached while they are requested, so identical concurrent searches share one request.
+     * It can be resized or cleared, a size of 0 disables caching.
+     *
+     * @return
+     *      The search result cache.
+     */
+    public ExpiringLruCache<String, CompletableFuture<SearchPage>> getCache()
+    {
+        return cache;
+    }
+
+    protected CompletableFuture<SearchPage> getPage(String guildId, String content, int offset)
+    {
+        String key = guildId + '\n' + offset + '\n' + content;
+        synchronized (cache)
+        {
+            CompletableFuture<SearchPage> page = cache.get(key);
+            if (page != null && !page.isCompletedExceptionally() && !page.isCancelled())
+                return page;
+            page = CompletableFuture.supplyAsync(() -> requestPage(guildId, content, offset), api.getExecutor());
+            //A running request never expires, otherwise a slow search would be started a second time.
+            cache.putPending(key, page);
+            //Failed requests must not be served from the cache. Only this future may be touched,
+            //a concurrent call could already have replaced it. The time to live starts once the page arrived.
+            CompletableFuture<SearchPage> request = page;
+            page.whenComplete((result, error) ->
+            {
+                if (error != null)
+                    cache.remove(key, request);
+                else
+                    cache.restartExpiry(key, request);
+            });
+            return page;
+        }
+    }
+
+    protected SearchPage requestPage(String guildId, String content, int offset)
+    {
+        String url;
+        try
+        {
+            url = Requester.DISCORD_API_PREFIX + "guilds/" + guildId + "/messages/search?content="
+                    + URLEncoder.encode(content, "UTF-8") + (offset > 0 ? "&offset=" + offset : "");
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            throw new IllegalStateException(e); //UTF-8 is always supported
+        }
+
+        int indexRetries = 0;
+        try
+        {
+            while (true)
+            {
+                Requester.Response response = api.getRequester().get(url);
+                if (response.isRateLimit())
+                {
+                    Thread.sleep(response.getObject().getLong("retry_after"));
+                    continue;
+                }
+                if (!response.isOk())
+                    throw new RuntimeException("Could not search guild " + guildId + ". Server responded with: " + response.code + " - " + response.responseText);
+
+                //202 Accepted: the guild is not indexed yet
+                if (response.code == 202)
+                {
+                    if (++indexRetries > MAX_INDEX_RETRIES)
+                        throw new IllegalStateException("The search index of guild " + guildId + " is not available yet");
+                    JSONObject body = response.getObject();
+                    Thread.sleep(body == null ? DEFAULT_INDEX_RETRY_DELAY : body.optLong("retry_after", DEFAULT_INDEX_RETRY_DELAY));
+                    continue;
+                }
+                return createPage(response.getObject(), offset);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching guild " + guildId);
+        }
+    }
+
+    protected SearchPage createPage(JSONObject json, int offset)
+    {
+        EntityBuilder builder = new EntityBuilder(api);
+        JSONArray results = json.getJSONArray("messages");
+        List<Message> messages = new ArrayList<>(results.length());
+        //Each result is a group of messages around the hit, only the hit itself is returned.
+        for (int i = 0; i < results.length(); i++)
+        {
+            JSONArray group = results.getJSONArray(i);
+            for (int j = 0; j < group.length(); j++)
+            {
+                JSONObject message = group.getJSONObject(j);
+                if (message.optBoolean("hit"))
+                {
+                    messages.add(builder.createMessage(message));
+                    break;
+                }
+            }
+        }
+        return new SearchPageImpl(messages, offset, results.length(), json.getInt("total_results"));
+    }
+
+    /**
+     * Iterates over the pages of a search result.
+     * <br>
+     * When a page is returned by {@link #next()}, the following page is already requested in the background.
+     */
+    public class SearchPaginator implements Iterator<SearchPage>
+    {
+        protected final String guildId;
+        protected final String content;
+        protected CompletableFuture<SearchPage> next;
+
+        protected SearchPaginator(String guildId, String content)
+        {
+            this.guildId = guildId;
+            this.content = content;
+            this.next = getPage(guildId, content, 0);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return next != null;
+        }
+
+        /**
+         * Returns the next page, blocking until it was retrieved.
+         *
+         * @return
+         *      The next page of the search result.
+         * @throws java.util.NoSuchElementException
+         *      If there are no more pages.
+         */
+        @Override
+        public SearchPage next()
+        {
+            if (next == null)
+                throw new NoSuchElementException();
+            SearchPageImpl page;
+            try
+            {
+                page = (SearchPageImpl) next.join();
+            }
+            catch (CompletionException e)
+            {
+                next = null;
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw e;
+            }
+            next = page.hasNextPage() ? getPage(guildId, content, page.getOffset() + page.getResultCount()) : null;
+            return page;
+        }
+
+        /**
+         * Stops iterating. A page that is currently requested in the background will still be cached.
+         */
+        public void cancel()
+        {
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,602 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.mock;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.dv8tion.jda.entities.impl.JDAImpl;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-process stand-in for Discord's REST API and gateway, used to benchmark the client offline.
+ * <br>
+ * Point a client at it using {@link net.dv8tion.jda.client.JDAClientBuilder#setApiUrl(String)} with {@link #getApiUrl()}.
+ * The gateway is discovered through the {@code gateway} endpoint of the stand-in, just like with Discord.
+ * <p>
+ * Every email/password combination and every token issued by the stand-in is accepted. After IDENTIFY, a synthetic
+ * READY payload with {@link #setGuildCount(int) guilds}, {@link #setChannelsPerGuild(int) channels} and
+ * {@link #setMembersPerGuild(int) members} is sent. Guild sync requests (op 12) are answered with GUILD_SYNC.
+ * {@link #setLatency(long) Latency} can be added to every REST response and READY, and every
+ * {@link #setRateLimitEvery(int, long) n-th} REST request can be answered with a 429.
+ * Additional dispatches, like the ones of a recording, can be pushed to all connected clients with {@link #dispatch(JSONObject)}.
+ * <p>
+ * All settings have to be changed before {@link #start()} is called.
+ */
+public class MockDiscordServer implements Closeable
+{
+    protected static final long GUILD_ID_BASE = 100000000000000000L;
+    protected static final long USER_ID_BASE = 200000000000000000L;
+    protected static final long ACCOUNT_ID_BASE = 300000000000000000L;
+    protected static final String JOINED_AT = "2016-01-01T00:00:00.000000+00:00";
+    protected static final String SELF_MEMBER_PLACEHOLDER = "\"$self_member$\"";
+
+    protected int guildCount = 10;
+    protected int channelsPerGuild = 5;
+    protected int membersPerGuild = 50;
+    protected long latency = 0;
+    protected int rateLimitEvery = 0;
+    protected long retryAfter = 100;
+    protected long heartbeatInterval = 41250;
+
+    protected final AtomicLong restRequests = new AtomicLong();
+    protected final AtomicLong rateLimited = new AtomicLong();
+    protected final AtomicLong logins = new AtomicLong();
+    protected final AtomicLong connections = new AtomicLong();
+    protected final AtomicLong readies = new AtomicLong();
+    protected final AtomicLong accountIds = new AtomicLong(ACCOUNT_ID_BASE);
+    protected final Map<String, Long> accounts = new ConcurrentHashMap<>();
+    protected final Set<GatewayConnection> openConnections = ConcurrentHashMap.newKeySet();
+
+    protected HttpServer http;
+    protected ServerSocket gateway;
+    protected ExecutorService pool;
+    protected String guildsJson;
+    protected volatile boolean running = false;
+
+    public MockDiscordServer setGuildCount(int guildCount)
+    {
+        this.guildCount = guildCount;
+        return this;
+    }
+
+    public MockDiscordServer setChannelsPerGuild(int channelsPerGuild)
+    {
+        this.channelsPerGuild = channelsPerGuild;
+        return this;
+    }
+
+    public MockDiscordServer setMembersPerGuild(int membersPerGuild)
+    {
+        this.membersPerGuild = membersPerGuild;
+        return this;
+    }
+
+    /**
+     * Sets the delay added to every REST response and to READY.
+     *
+     * @param millis
+     *          The latency in milliseconds.
+     * @return
+     *      This instance. Useful for chaining.
+     */
+    public MockDiscordServer setLatency(long millis)
+    {
+        this.latency = millis;
+        return this;
+    }
+
+    /**
+     * Answers every n-th REST request with a 429 response.
+     * Login and gateway requests are counted but never rate limited, because the client does not retry them.
+     *
+     * @param n
+     *          The interval of rate limited requests, or 0 to disable rate limiting.
+     * @param retryAfter
+     *          The retry_after in milliseconds to return with each 429.
+     * @return
+     *      This instance. Useful for chaining.
+     */
+    public MockDiscordServer setRateLimitEvery(int n, long retryAfter)
+    {
+        this.rateLimitEvery = n;
+        this.retryAfter = retryAfter;
+        return this;
+    }
+
+    public MockDiscordServer setHeartbeatInterval(long millis)
+    {
+        this.heartbeatInterval = millis;
+        return this;
+    }
+
+    /**
+     * Starts the REST API and the gateway on free local ports.
+     *
+     * @return
+     *      This instance. Useful for chaining.
+     * @throws IOException
+     *          If one of the sockets could not be opened.
+     */
+    public MockDiscordServer start() throws IOException
+    {
+        if (running)
+            throw new IllegalStateException("The server is already running");
+        guildsJson = createGuilds();
+        pool = Executors.newCachedThreadPool(r ->
+        {
+            Thread t = new Thread(r, "MockDiscordServer Worker");
+            t.setDaemon(true);
+            return t;
+        });
+
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        gateway = new ServerSocket(0, 512, loopback);
+        http = HttpServer.create(new InetSocketAddress(loopback, 0), 512);
+        http.createContext("/api/", this::handleRest);
+        http.setExecutor(pool);
+        http.start();
+        running = true;
+
+        Thread acceptor = new Thread(this::acceptGateway, "MockDiscordServer Gateway");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return this;
+    }
+
+    @Override
+    public void close()
+    {
+        running = false;
+        if (http != null)
+            http.stop(0);
+        try
+        {
+            if (gateway != null)
+                gateway.close();
+        }
+        catch (IOException ignored) {}
+        if (pool != null)
+            pool.shutdownNow();
+    }
+
+    public String getApiUrl()
+    {
+        return "http://" + http.getAddress().getHostString() + ':' + http.getAddress().getPort() + "/api/";
+    }
+
+    public String getGatewayUrl()
+    {
+        return "ws://" + gateway.getInetAddress().getHostAddress() + ':' + gateway.getLocalPort();
+    }
+
+    public long getRestRequestCount()
+    {
+        return restRequests.get();
+    }
+
+    public long getRateLimitedCount()
+    {
+        return rateLimited.get();
+    }
+
+    public long getLoginCount()
+    {
+        return logins.get();
+    }
+
+    public long getConnectionCount()
+    {
+        return connections.get();
+    }
+
+    public long getReadyCount()
+    {
+        return readies.get();
+    }
+
+    /**
+     * The amount of gateway connections that are currently open.
+     *
+     * @return
+     *      The amount of open gateway connections.
+     */
+    public int getOpenConnectionCount()
+    {
+        return openConnections.size();
+    }
+
+    /**
+     * Sends a dispatch (op 0) to every connected client. The sequence number is replaced by the one of each connection,
+     * so the clients can still heartbeat and resume.
+     * <br>
+     * The clients handle the dispatch on their WebSocket thread, in order with all other frames of their connection.
+     *
+     * @param dispatch
+     *          The dispatch to send.
+     * @return
+     *      The amount of connections the dispatch was sent to.
+     */
+    public int dispatch(JSONObject dispatch)
+    {
+        if (dispatch.getInt("op") != 0)
+            throw new IllegalArgumentException("Only dispatches (op 0) can be sent");
+        //The sequence number is written into the frame, the caller's object is left untouched.
+        JSONObject frame = new JSONObject(dispatch.toString());
+        int sent = 0;
+        for (GatewayConnection connection : openConnections)
+        {
+            try
+            {
+                connection.sendDispatch(frame);
+                sent++;
+            }
+            catch (IOException e)
+            {
+                //The connection is closing, it is removed by its own thread.
+            }
+        }
+        return sent;
+    }
+
+    protected void handleRest(HttpExchange exchange) throws IOException
+    {
+        try
+        {
+            long count = restRequests.incrementAndGet();
+            sleep(latency);
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath().substring("/api/".length());
+            //Login and gateway discovery do not retry on 429, so they are never rate limited.
+            boolean limited = !path.startsWith("auth/") && !path.equals("gateway");
+            if (limited && rateLimitEvery > 0 && count % rateLimitEvery == 0)
+            {
+                rateLimited.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", Long.toString(retryAfter));
+                respond(exchange, 429, new JSONObject()
+                        .put("message", "You are being rate limited.")
+                        .put("retry_after", retryAfter)
+                        .put("global", false).toString());
+                return;
+            }
+
+            String body = read(exchange.getRequestBody());
+
+            if (method.equals("POST") && (path.equals("auth/login") || path.equals("auth/mfa/totp")))
+            {
+                logins.incrementAndGet();
+                JSONObject json = new JSONObject(body);
+                String account = json.has("email") ? json.getString("email") : json.optString("ticket");
+                long id = accounts.computeIfAbsent(account, k -> accountIds.incrementAndGet());
+                respond(exchange, 200, new JSONObject().put("token", "mock." + id).toString());
+            }
+            else if (method.equals("GET") && path.equals("gateway"))
+            {
+                respond(exchange, 200, new JSONObject().put("url", getGatewayUrl()).toString());
+            }
+            else if (path.equals("users/@me"))
+            {
+                long id = getAccountId(exchange.getRequestHeaders().getFirst("authorization"));
+                if (id == -1)
+                    respond(exchange, 401, new JSONObject().put("code", 0).put("message", "401: Unauthorized").toString());
+                else if (method.equals("PATCH"))
+                    respond(exchange, 200, createSelf(id).put("token", "mock." + id).toString());
+                else
+                    respond(exchange, 200, createSelf(id).toString());
+            }
+            else if (method.equals("GET") && path.endsWith("/messages"))
+            {
+                respond(exchange, 200, "[]");
+            }
+            else if (method.equals("POST") && path.endsWith("/ack"))
+            {
+                respond(exchange, 200, new JSONObject().put("token", JSONObject.NULL).toString());
+            }
+            else
+            {
+                respond(exchange, 404, new JSONObject().put("code", 0).put("message", "404: Not Found").toString());
+            }
+        }
+        catch (RuntimeException e)
+        {
+            JDAImpl.LOG.log(e);
+            respond(exchange, 500, new JSONObject().put("code", 0).put("message", String.valueOf(e.getMessage())).toString());
+        }
+    }
+
+    protected void acceptGateway()
+    {
+        while (running)
+        {
+            try
+            {
+                Socket socket = gateway.accept();
+                socket.setTcpNoDelay(true);
+                connections.incrementAndGet();
+                pool.execute(new GatewayConnection(socket));
+            }
+            catch (IOException e)
+            {
+                if (running)
+                    JDAImpl.LOG.log(e);
+            }
+        }
+    }
+
+    protected String createGuilds()
+    {
+        JSONArray guilds = new JSONArray();
+        for (int g = 0; g < guildCount; g++)
+        {
+            String guildId = Long.toString(GUILD_ID_BASE + g * 1000000L);
+            JSONArray channels = new JSONArray();
+            for (int c = 0; c < channelsPerGuild; c++)
+            {
+                channels.put(new JSONObject()
+                        .put("id", Long.toString(GUILD_ID_BASE + g * 1000000L + c + 1))
+                        .put("name", "channel-" + c)
+                        .put("type", "text")
+                        .put("position", c)
+                        .put("topic", JSONObject.NULL)
+                        .put("last_message_id", JSONObject.NULL)
+                        .put("permission_overwrites", new JSONArray()));
+            }
+            guilds.put(new JSONObject()
+                    .put("id", guildId)
+                    .put("name", "Guild " + g)
+                    .put("icon", JSONObject.NULL)
+                    .put("owner_id", Long.toString(USER_ID_BASE))
+                    .put("region", "us-east")
+                    .put("afk_channel_id", JSONObject.NULL)
+                    .put("afk_timeout", 300)
+                    .put("verification_level", 0)
+                    .put("default_message_notifications", 0)
+                    .put("mfa_level", 0)
+                    .put("joined_at", JOINED_AT)
+                    .put("large", false)
+                    .put("unavailable", false)
+                    .put("member_count", membersPerGuild + 1)
+                    .put("features", new JSONArray())
+                    .put("emojis", new JSONArray())
+                    .put("roles", new JSONArray().put(new JSONObject()
+                            .put("id", guildId)
+                            .put("name", "@everyone")
+                            .put("color", 0)
+                            .put("position", 0)
+                            .put("permissions", 36953089)
+                            .put("managed", false)
+                            .put("hoist", false)
+                            .put("mentionable", false)))
+                    .put("channels", channels)
+                    .put("members", createMembers())
+                    .put("presences", new JSONArray())
+                    .put("voice_states", new JSONArray()));
+        }
+        //The account's own member differs per login and is inserted when READY is sent.
+        return guilds.toString().replace("\"members\":[", "\"members\":[" + SELF_MEMBER_PLACEHOLDER + (membersPerGuild > 0 ? "," : ""));
+    }
+
+    protected JSONArray createMembers()
+    {
+        JSONArray members = new JSONArray();
+        for (int m = 0; m < membersPerGuild; m++)
+            members.put(createMember(createUser(USER_ID_BASE + m)));
+        return members;
+    }
+
+    protected JSONObject createMember(JSONObject user)
+    {
+        return new JSONObject()
+                .put("user", user)
+                .put("roles", new JSONArray())
+                .put("joined_at", JOINED_AT)
+                .put("nick", JSONObject.NULL)
+                .put("deaf", false)
+                .put("mute", false);
+    }
+
+    protected JSONObject createUser(long id)
+    {
+        return new JSONObject()
+                .put("id", Long.toString(id))
+                .put("username", "User" + id % 10000)
+                .put("discriminator", String.format("%04d", id % 10000))
+                .put("avatar", JSONObject.NULL);
+    }
+
+    protected JSONObject createSelf(long id)
+    {
+        return createUser(id)
+                .put("email", "account" + (id - ACCOUNT_ID_BASE) + "@example.com")
+                .put("verified", true)
+                .put("mfa_enabled", false);
+    }
+
+    protected long getAccountId(String token)
+    {
+        if (token == null || !token.startsWith("mock."))
+            return -1;
+        try
+        {
+            return Long.parseLong(token.substring("mock.".length()));
+        }
+        catch (NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+
+    protected static void respond(HttpExchange exchange, int code, String body) throws IOException
+    {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody())
+        {
+            out.write(bytes);
+        }
+    }
+
+    protected static String read(InputStream in) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1)
+            out.write(buffer, 0, read);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    protected static void sleep(long millis)
+    {
+        if (millis <= 0)
+            return;
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    protected class GatewayConnection extends MockWebSocketConnection
+    {
+        protected final AtomicLong sequence = new AtomicLong();
+
+        protected GatewayConnection(Socket socket)
+        {
+            super(socket);
+        }
+
+        @Override
+        public void run()
+        {
+            openConnections.add(this);
+            try
+            {
+                super.run();
+            }
+            finally
+            {
+                openConnections.remove(this);
+            }
+        }
+
+        //Synchronized with sendText, so the sequence numbers reach the client in order.
+        protected synchronized void sendDispatch(JSONObject dispatch) throws IOException
+        {
+            sendText(dispatch.put("s", sequence.incrementAndGet()).toString());
+        }
+
+        @Override
+        protected void onOpen() throws IOException
+        {
+            //Gateway v6 clients wait for HELLO, older ones read the interval from READY.
+            sendText(new JSONObject()
+                    .put("op", 10)
+                    .put("d", new JSONObject().put("heartbeat_interval", heartbeatInterval))
+                    .toString());
+        }
+
+        @Override
+        protected void onText(String message) throws IOException
+        {
+            JSONObject payload = new JSONObject(message);
+            switch (payload.getInt("op"))
+            {
+                case 1: //heartbeat
+                    sendText("{\"op\":11,\"d\":null}");
+                    break;
+                case 2: //identify
+                {
+                    long id = getAccountId(payload.getJSONObject("d").getString("token"));
+                    if (id == -1)
+                    {
+                        close();
+                        return;
+                    }
+                    sleep(latency);
+                    sendReady(id);
+                    break;
+                }
+                case 6: //resume
+                    sendDispatch(new JSONObject().put("op", 0).put("t", "RESUMED").put("d", new JSONObject()));
+                    break;
+                case 12: //guild sync
+                {
+                    JSONArray guildIds = payload.getJSONArray("d");
+                    for (int i = 0; i < guildIds.length(); i++)
+                    {
+                        sendDispatch(new JSONObject()
+                                .put("op", 0)
+                                .put("t", "GUILD_SYNC")
+                                .put("d", new JSONObject()
+                                        .put("id", guildIds.getString(i))
+                                        .put("large", false)
+                                        .put("members", createMembers())
+                                        .put("presences", new JSONArray())));
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+
+        protected void sendReady(long accountId) throws IOException
+        {
+            JSONObject self = createSelf(accountId);
+            String guilds = guildsJson.replace(SELF_MEMBER_PLACEHOLDER, createMember(createUser(accountId)).toString());
+            //Holds the lock of sendDispatch, so a dispatch of another thread can not overtake READY.
+            synchronized (this)
+            {
+                sendText("{\"op\":0,\"t\":\"READY\",\"s\":" + sequence.incrementAndGet() + ",\"d\":{"
+                        + "\"v\":5,"
+                        + "\"heartbeat_interval\":" + heartbeatInterval + ','
+                        + "\"session_id\":\"mock-session-" + accountId + '-' + connections.get() + "\","
+                        + "\"user\":" + self + ','
+                        + "\"guilds\":" + guilds + ','
+                        + "\"private_channels\":[],"
+                        + "\"relationships\":[],"
+                        + "\"presences\":[],"
+                        + "\"read_state\":[],"
+                        + "\"user_settings\":{},"
+                        + "\"user_guild_settings\":[]"
+                        + "}}");
+            }
+            readies.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.mock;
+
+import net.dv8tion.jda.entities.impl.JDAImpl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Minimal server side of a WebSocket connection (RFC 6455) as used by {@link MockDiscordServer MockDiscordServer}.
+ * Only text, ping and close frames are supported, which is all the gateway needs.
+ */
+abstract class MockWebSocketConnection implements Runnable
+{
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    protected final Socket socket;
+    protected DataInputStream in;
+    protected OutputStream out;
+
+    MockWebSocketConnection(Socket socket)
+    {
+        this.socket = socket;
+    }
+
+    protected abstract void onOpen() throws IOException;
+
+    protected abstract void onText(String message) throws IOException;
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new BufferedOutputStream(socket.getOutputStream());
+            if (!handshake())
+                return;
+            onOpen();
+
+            ByteArrayOutputStream message = new ByteArrayOutputStream();
+            while (!socket.isClosed())
+            {
+                int first = in.readUnsignedByte();
+                int second = in.readUnsignedByte();
+                boolean fin = (first & 0x80) != 0;
+                int opcode = first & 0x0F;
+                long length = second & 0x7F;
+                if (length == 126)
+                    length = in.readUnsignedShort();
+                else if (length == 127)
+                    length = in.readLong();
+                byte[] mask = new byte[4];
+                if ((second & 0x80) != 0)
+                    in.readFully(mask);
+                byte[] payload = new byte[(int) length];
+                in.readFully(payload);
+                for (int i = 0; i < payload.length; i++)
+                    payload[i] ^= mask[i & 3];
+
+                switch (opcode)
+                {
+                    case 0x0: //continuation
+                    case 0x1: //text
+                        message.write(payload);
+                        if (fin)
+                        {
+                            onText(new String(message.toByteArray(), StandardCharsets.UTF_8));
+                            message.reset();
+                        }
+                        break;
+                    case 0x8: //close
+                        writeFrame(0x8, payload);
+                        socket.close();
+                        return;
+                    case 0x9: //ping
+                        writeFrame(0xA, payload);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        catch (EOFException ignored) {}
+        catch (IOException e)
+        {
+            if (!socket.isClosed())
+                JDAImpl.LOG.log(e);
+        }
+        finally
+        {
+            close();
+        }
+    }
+
+    protected synchronized void sendText(String message) throws IOException
+    {
+        writeFrame(0x1, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    protected void close()
+    {
+        try
+        {
+            socket.close();
+        }
+        catch (IOException ignored) {}
+    }
+
+    private synchronized void writeFrame(int opcode, byte[] payload) throws IOException
+    {
+        out.write(0x80 | opcode);
+        if (payload.length < 126)
+        {
+            out.write(payload.length);
+        }
+        else if (payload.length <= 0xFFFF)
+        {
+            out.write(126);
+            out.write(payload.length >>> 8);
+            out.write(payload.length);
+        }
+        else
+        {
+            out.write(127);
+            long length = payload.length;
+            for (int shift = 56; shift >= 0; shift -= 8)
+                out.write((int) (length >>> shift));
+        }
+        out.write(payload);
+        out.flush();
+    }
+
+    private boolean handshake() throws IOException
+    {
+        String key = null;
+        String line;
+        while (!(line = readLine(in)).isEmpty())
+        {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Key"))
+                key = line.substring(colon + 1).trim();
+        }
+        if (key == null)
+        {
+            out.write("HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return false;
+        }
+
+        String accept;
+        try
+        {
+            accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+                    .digest((key + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII)));
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(e); //SHA-1 is required to be present in every JRE
+        }
+        out.write(("HTTP/1.1 101 Switching Protocols\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return true;
+    }
+
+    private static String readLine(InputStream in) throws IOException
+    {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\n')
+        {
+            if (c == -1)
+                throw new EOFException();
+            if (c != '\r')
+                line.append((char) c);
+        }
+        return line.toString();
+    }
+}
@@ -15,19 +15,134 @@
  */
 package net.dv8tion.jda.client.requests;
 
+import com.mashape.unirest.http.Unirest;
+import com.mashape.unirest.http.exceptions.UnirestException;
 import com.mashape.unirest.request.HttpRequest;
 import net.dv8tion.jda.client.JDAClientInfo;
+import net.dv8tion.jda.client.entities.impl.JDAClientImpl;
+import net.dv8tion.jda.client.utils.StartupProfile;
 import net.dv8tion.jda.entities.impl.JDAImpl;
 import net.dv8tion.jda.requests.Requester;
+import org.json.JSONObject;
+
+import java.io.IOException;
 
 public class ClientRequester extends Requester
 {
     public static  String LOGIN_USER_AGENT = "Mozilla/5.0 (Windows NT 6.1; WOW64) AppleWebKit/537.36 (KHTML, like Gecko) discord/0.0.19 Chrome/49.0.2623.75 Discord PTB/0.37.6 Safari/537.36";
     public static String CLIENT_USER_AGENT = "JDA-Client DiscordBot (" + JDAClientInfo.GITHUB + ", " + JDAClientInfo.VERSION + ")";
 
+    protected final JDAClientImpl clientApi;
+
     public ClientRequester(JDAImpl api)
     {
         super(api);
+        this.clientApi = api instanceof JDAClientImpl ? (JDAClientImpl) api : null;
+    }
+
+    public ClientRequester(JDAClientImpl api)
+    {
+        this((JDAImpl) api);
+    }
+
+    /**
+     * Initializes Unirest's HTTP client and opens a first connection to the API on a new thread.
+     * Following requests can reuse the pooled connection instead of paying for the TLS handshake.
+     *
+     * @param apiUrl
+     *          The base url of the API.
+     * @param profile
+     *          The profile to record the {@link StartupProfile.Phase#HTTP_WARMUP HTTP_WARMUP} phase in.
+     * @return
+     *      The started warm-up thread.
+     */
+    public static Thread warmUp(String apiUrl, StartupProfile profile)
+    {
+        Thread thread = new Thread(() ->
+        {
+            profile.begin(StartupProfile.Phase.HTTP_WARMUP);
+            try
+            {
+                Unirest.get(apiUrl + "gateway").header("user-agent", CLIENT_USER_AGENT).asString();
+            }
+            catch (UnirestException e)
+            {
+                JDAImpl.LOG.debug("HTTP warm-up failed: " + e.getMessage());
+            }
+            profile.end(StartupProfile.Phase.HTTP_WARMUP);
+        }, "JDA-Client Warmup");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    @Override
+    public Response get(String url)
+    {
+        url = rewrite(url);
+        return record("GET", url, super.get(url));
+    }
+
+    @Override
+    public Response post(String url, JSONObject body)
+    {
+        url = rewrite(url);
+        return record("POST", url, super.post(url, body));
+    }
+
+    @Override
+    public Response patch(String url, JSONObject body)
+    {
+        url = rewrite(url);
+        return record("PATCH", url, super.patch(url, body));
+    }
+
+    @Override
+    public Response put(String url, JSONObject body)
+    {
+        url = rewrite(url);
+        return record("PUT", url, super.put(url, body));
+    }
+
+    @Override
+    public Response delete(String url)
+    {
+        url = rewrite(url);
+        return record("DELETE", url, super.delete(url));
+    }
+
+    /**
+     * Redirects requests to the Discord API to the {@link JDAClientImpl#getApiUrl() API url} configured for the client.
+     *
+     * @param url
+     *          The requested url.
+     * @return
+     *      The url the request should be sent to.
+     */
+    protected String rewrite(String url)
+    {
+        if (clientApi == null || clientApi.isDefaultApi() || !url.startsWith(DISCORD_API_PREFIX))
+            return url;
+        return clientApi.getApiUrl() + url.substring(DISCORD_API_PREFIX.length());
+    }
+
+    protected Response record(String method, String url, Response response)
+    {
+        GatewayRecorder recorder = clientApi == null ? null : clientApi.getRecorder();
+        if (recorder != null && response != null)
+        {
+            try
+            {
+                recorder.recordRestResponse(method, url, response.code, response.responseText);
+            }
+            catch (IOException e)
+            {
+                JDAImpl.LOG.warn("Could not record REST response, stopping the recording");
+                JDAImpl.LOG.log(e);
+                clientApi.stopRecording();
+            }
+        }
+        return response;
     }
 
     @Override
@@ -0,0 +1,43 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.requests;
+
+import net.dv8tion.jda.client.utils.SlidingWindowRateLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link net.dv8tion.jda.client.utils.SlidingWindowRateLimiter SlidingWindowRateLimiter} for payloads the client layer sends over the gateway.
+ * <br>
+ * Discord closes connections that send more than 120 payloads per minute. JDA sends its own heartbeats and
+ * status updates on the same connection, so the default budget leaves some room for those.
+ */
+public class GatewayRateLimiter extends SlidingWindowRateLimiter
+{
+    public static final int DEFAULT_BUDGET = 100;
+    public static final long DEFAULT_WINDOW = 60000;
+
+    public GatewayRateLimiter()
+    {
+        this(DEFAULT_BUDGET, DEFAULT_WINDOW, TimeUnit.MILLISECONDS);
+    }
+
+    public GatewayRateLimiter(int budget, long window, TimeUnit unit)
+    {
+        super(budget, window, unit);
+    }
+}
+
@@ -0,0 +1,123 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.requests;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Writes raw gateway frames and REST responses received by a {@link net.dv8tion.jda.client.JDAClient JDAClient}
+ * to a binary log that can be fed back with {@link GatewayReplay GatewayReplay}.
+ * <p>
+ * The log starts with the {@link #MAGIC magic bytes} and the format {@link #VERSION version},
+ * followed by records of the form:
+ * <pre>
+ *     byte   type      ({@link #TYPE_GATEWAY} or {@link #TYPE_REST})
+ *     long   time      (nanoseconds since the recording started)
+ *     int    length    (length of data in bytes)
+ *     byte[] data      (UTF-8; gateway: the frame json, REST: "METHOD url\ncode\nbody")
+ * </pre>
+ * Authentication tokens and MFA tickets in REST responses are replaced with {@value #REDACTED}
+ * before they are written, so recordings can be shared.
+ */
+public class GatewayRecorder implements Closeable
+{
+    public static final byte[] MAGIC = {'J', 'D', 'A', 'C', 'R', 'E', 'C'};
+    public static final byte VERSION = 1;
+    public static final byte TYPE_GATEWAY = 1;
+    public static final byte TYPE_REST = 2;
+    public static final String REDACTED = "redacted";
+
+    protected static final Pattern SECRETS = Pattern.compile("(\"(?:token|ticket)\"\\s*:\\s*)\"(?:[^\"\\\\]|\\\\.)*\"");
+
+    protected final DataOutputStream out;
+    protected final long start = System.nanoTime();
+    protected long records = 0;
+    protected long bytes = 0;
+    protected boolean closed = false;
+
+    public GatewayRecorder(Path file) throws IOException
+    {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    public void recordGatewayFrame(String frame) throws IOException
+    {
+        write(TYPE_GATEWAY, frame);
+    }
+
+    public void recordRestResponse(String method, String url, int code, String body) throws IOException
+    {
+        write(TYPE_REST, method + ' ' + url + '\n' + code + '\n' + (body == null ? "" : redact(body)));
+    }
+
+    /**
+     * The amount of records written so far.
+     *
+     * @return
+     *      The amount of records.
+     */
+    public synchronized long getRecordCount()
+    {
+        return records;
+    }
+
+    /**
+     * The amount of payload bytes written so far, excluding record headers.
+     *
+     * @return
+     *      The amount of recorded bytes.
+     */
+    public synchronized long getByteCount()
+    {
+        return bytes;
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (closed)
+            return;
+        closed = true;
+        out.close();
+    }
+
+    protected static String redact(String body)
+    {
+        return SECRETS.matcher(body).replaceAll("$1\"" + REDACTED + "\"");
+    }
+
+    protected synchronized void write(byte type, String data) throws IOException
+    {
+        if (closed)
+            return;
+        byte[] payload = data.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(type);
+        out.writeLong(System.nanoTime() - start);
+        out.writeInt(payload.length);
+        out.write(payload);
+        records++;
+        bytes += payload.length;
+    }
+}
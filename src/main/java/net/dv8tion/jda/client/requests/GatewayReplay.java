@@ -0,0 +1,269 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.requests;
+
+import net.dv8tion.jda.client.JDAClient;
+import net.dv8tion.jda.client.entities.impl.JDAClientImpl;
+import net.dv8tion.jda.client.mock.MockDiscordServer;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds a log written by {@link GatewayRecorder GatewayRecorder} back into a {@link net.dv8tion.jda.client.JDAClient JDAClient}.
+ * <br>
+ * If a {@link net.dv8tion.jda.client.mock.MockDiscordServer MockDiscordServer} is provided, the client has to be
+ * logged in to it. Recorded dispatches (op 0), including READY, are then {@link MockDiscordServer#dispatch(JSONObject) sent}
+ * by the server, so they pass through {@link WebSocketExtension WebSocketExtension}, JDA's handlers and the event manager
+ * on the WebSocket thread, in order with the live frames of the session. Control frames (HELLO, RECONNECT,
+ * INVALID_SESSION, heartbeat ACK) would act on the live connection and are skipped. The replay only measures how fast
+ * the frames are sent; they are handled once the client read them.
+ * A client that is connected to Discord can not be replayed into.
+ * <p>
+ * Without a connection, frames are only passed to the client's {@link WebSocketExtension WebSocketExtension};
+ * frames it does not consume are skipped. This measures the client layer alone.
+ * <p>
+ * Recorded REST responses are counted but not replayed.
+ */
+public class GatewayReplay
+{
+    protected final JDAClientImpl api;
+    protected final Path file;
+    protected final MockDiscordServer server;
+
+    /**
+     * Creates a replay that only passes the frames to the {@link WebSocketExtension WebSocketExtension} of the client.
+     *
+     * @param api
+     *          The client to replay into. It may not be logged in.
+     * @param file
+     *          The recording.
+     */
+    public GatewayReplay(JDAClient api, Path file)
+    {
+        this(api, file, null);
+    }
+
+    /**
+     * Creates a replay that sends the recorded dispatches through the given server.
+     *
+     * @param api
+     *          The client to replay into.
+     * @param file
+     *          The recording.
+     * @param server
+     *          The server the client is logged in to, or {@code null} to replay without a connection.
+     */
+    public GatewayReplay(JDAClient api, Path file, MockDiscordServer server)
+    {
+        this.api = (JDAClientImpl) api;
+        this.file = file;
+        this.server = server;
+    }
+
+    /**
+     * Replays the log.
+     *
+     * @param realtime
+     *          True to keep the time between frames as recorded, false to replay as fast as possible.
+     * @return
+     *      The statistics of this replay.
+     * @throws IOException
+     *          If the log could not be read or is not a valid recording.
+     * @throws IllegalStateException
+     *          If the client is logged in, but not to the {@link MockDiscordServer MockDiscordServer} of this replay.
+     */
+    public Result replay(boolean realtime) throws IOException
+    {
+        //JDA's handlers are not thread-safe, live frames may only ever be handled by the WebSocket thread.
+        if (server == null && api.getClient() != null)
+            throw new IllegalStateException("A logged in client can only be replayed into through the MockDiscordServer it is connected to");
+        if (server != null && (api.isDefaultApi() || api.getClient() == null || server.getOpenConnectionCount() == 0))
+            throw new IllegalStateException("The client is not connected to the provided MockDiscordServer");
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024)))
+        {
+            byte[] magic = new byte[GatewayRecorder.MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, GatewayRecorder.MAGIC))
+                throw new IOException("The provided file is not a gateway recording");
+            byte version = in.readByte();
+            if (version != GatewayRecorder.VERSION)
+                throw new IOException("Unsupported recording version " + version);
+
+            WebSocketExtension extension = api.getWebSocketExtension();
+            long frames = 0, consumed = 0, skipped = 0, rest = 0, bytes = 0;
+            long start = System.nanoTime();
+            while (true)
+            {
+                byte type;
+                try
+                {
+                    type = in.readByte();
+                }
+                catch (EOFException e)
+                {
+                    break;
+                }
+                long time = in.readLong();
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                bytes += data.length;
+
+                if (type != GatewayRecorder.TYPE_GATEWAY)
+                {
+                    rest++;
+                    continue;
+                }
+
+                if (realtime)
+                {
+                    long wait = time - (System.nanoTime() - start);
+                    if (wait > 0)
+                    {
+                        try
+                        {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        }
+                        catch (InterruptedException e)
+                        {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                    }
+                }
+
+                String frame = new String(data, StandardCharsets.UTF_8);
+                frames++;
+                if (server != null)
+                {
+                    JSONObject raw = new JSONObject(frame);
+                    if (raw.getInt("op") != 0 || server.dispatch(raw) == 0)
+                        skipped++;
+                }
+                else
+                {
+                    try
+                    {
+                        if (extension.handle(new JSONObject(frame)))
+                            consumed++;
+                        else
+                            skipped++;
+                    }
+                    catch (RuntimeException e)
+                    {
+                        //Handlers may depend on cache state that only JDA's own handlers create.
+                        skipped++;
+                    }
+                }
+            }
+            return new Result(frames, consumed, skipped, rest, bytes, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Statistics of a finished replay.
+     */
+    public static class Result
+    {
+        protected final long frames;
+        protected final long consumedFrames;
+        protected final long skippedFrames;
+        protected final long restResponses;
+        protected final long bytes;
+        protected final long elapsedNanos;
+
+        public Result(long frames, long consumedFrames, long skippedFrames, long restResponses, long bytes, long elapsedNanos)
+        {
+            this.frames = frames;
+            this.consumedFrames = consumedFrames;
+            this.skippedFrames = skippedFrames;
+            this.restResponses = restResponses;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * The amount of gateway frames that were replayed.
+         *
+         * @return
+         *      The amount of replayed frames.
+         */
+        public long getFrames()
+        {
+            return frames;
+        }
+
+        /**
+         * The amount of frames that were fully handled by the {@link WebSocketExtension WebSocketExtension}
+         * during an offline replay. Always 0 when replaying through a server.
+         *
+         * @return
+         *      The amount of consumed frames.
+         */
+        public long getConsumedFrames()
+        {
+            return consumedFrames;
+        }
+
+        /**
+         * The amount of frames that were not processed: control frames and frames sent while the client was not
+         * connected during a replay through a server, frames that require a connected client during an offline replay.
+         *
+         * @return
+         *      The amount of skipped frames.
+         */
+        public long getSkippedFrames()
+        {
+            return skippedFrames;
+        }
+
+        public long getRestResponses()
+        {
+            return restResponses;
+        }
+
+        public long getBytes()
+        {
+            return bytes;
+        }
+
+        public long getElapsed(TimeUnit unit)
+        {
+            return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        public double getFramesPerSecond()
+        {
+            return elapsedNanos == 0 ? 0 : frames * 1_000_000_000d / elapsedNanos;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("Replayed %d frames (%d bytes) in %d ms: %.1f frames/s", frames, bytes,
+                    getElapsed(TimeUnit.MILLISECONDS), getFramesPerSecond());
+        }
+    }
+}
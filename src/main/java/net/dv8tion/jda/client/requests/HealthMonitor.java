@@ -0,0 +1,441 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.requests;
+
+import net.dv8tion.jda.client.entities.impl.JDAClientImpl;
+import net.dv8tion.jda.client.events.ConnectionHealthEvent;
+import net.dv8tion.jda.client.utils.ConnectionHealth;
+import net.dv8tion.jda.client.utils.RollingSamples;
+import net.dv8tion.jda.entities.impl.JDAImpl;
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects telemetry about the gateway connection of a {@link net.dv8tion.jda.client.JDAClient JDAClient}:
+ * heartbeat round trip times, missed heartbeat acknowledgements, the inbound frame rate and payload bytes per event type,
+ * and how long it takes until a received event reaches the listeners.
+ * <br>
+ * Nothing is measured until {@link #startMonitoring(long, TimeUnit)} is called.
+ * <p>
+ * The heartbeat latency is measured with own heartbeat probes that are sent in the monitoring interval
+ * and count towards the {@link net.dv8tion.jda.client.requests.GatewayRateLimiter gateway budget}.
+ * Acknowledgements do not tell which heartbeat they belong to, so JDA's own heartbeats are predicted from the
+ * {@code heartbeat_interval} of the gateway. No probe is sent within {@value #HEARTBEAT_GUARD} milliseconds of such a
+ * heartbeat, and a probe whose round trip still overlapped one is not sampled.
+ * Missed acknowledgements are only counted once the gateway acknowledged at least one heartbeat.
+ * <br>
+ * Thresholds can be set per {@link Metric Metric}. Whenever the set of exceeded thresholds changes, a
+ * {@link net.dv8tion.jda.client.events.ConnectionHealthEvent ConnectionHealthEvent} is fired.
+ */
+public class HealthMonitor
+{
+    public static final int SAMPLE_SIZE = 256;
+    public static final int RATE_WINDOW = 60;
+    public static final long HEARTBEAT_GUARD = 2000;
+
+    public enum Metric
+    {
+        /** The 99th percentile of the heartbeat round trip time. */
+        HEARTBEAT_LATENCY,
+        /** The amount of heartbeat probes in a row that were not acknowledged. */
+        MISSED_ACKS,
+        /** The 99th percentile of the time from receiving a frame until its event reached the listeners. */
+        DISPATCH_LAG,
+        /** The 99th percentile of the time all listeners together needed to handle one event. */
+        LISTENER_TIME
+    }
+
+    protected final JDAClientImpl api;
+    protected final RollingSamples heartbeats = new RollingSamples(SAMPLE_SIZE);
+    protected final RollingSamples dispatchLag = new RollingSamples(SAMPLE_SIZE);
+    protected final RollingSamples listenerTime = new RollingSamples(SAMPLE_SIZE);
+    protected final Map<String, LongAdder[]> eventTypes = new ConcurrentHashMap<>();
+    protected final LongAdder frames = new LongAdder();
+    protected final LongAdder bytes = new LongAdder();
+    protected final long[] rateBuckets = new long[RATE_WINDOW];
+    protected final long[] rateSeconds = new long[RATE_WINDOW];
+    protected final AtomicLong probeSentAt = new AtomicLong(-1);
+    protected final AtomicLong heartbeatsSent = new AtomicLong();
+    protected final AtomicLong missedAcks = new AtomicLong();
+    protected final AtomicLong consecutiveMisses = new AtomicLong();
+    protected final Map<Metric, Long> thresholds = Collections.synchronizedMap(new EnumMap<>(Metric.class));
+
+    protected volatile long beatInterval = -1;
+    protected volatile long beatAnchor = 0;
+    protected volatile long lastRoundTrip = 0;
+    protected volatile boolean enabled = false;
+    protected volatile boolean acksSeen = false;
+    protected volatile Object lastSequence = JSONObject.NULL;
+    protected volatile Thread frameThread = null;
+    protected long frameReceivedAt = 0;
+    protected ScheduledFuture<?> probeTask = null;
+    protected Set<Metric> breached = EnumSet.noneOf(Metric.class);
+
+    public HealthMonitor(JDAClientImpl api)
+    {
+        this.api = api;
+    }
+
+    /**
+     * Starts sending heartbeat probes and collecting telemetry. Thresholds are checked after every probe.
+     * An already running monitoring is restarted with the new interval, the collected samples are kept.
+     *
+     * @param interval
+     *          The time between two heartbeat probes.
+     * @param unit
+     *          The unit of the interval.
+     */
+    public synchronized void startMonitoring(long interval, TimeUnit unit)
+    {
+        stopMonitoring();
+        enabled = true;
+        probeTask = api.getScheduler().scheduleAtFixedRate(() ->
+        {
+            try
+            {
+                probe();
+                checkThresholds();
+            }
+            catch (Exception e)
+            {
+                JDAImpl.LOG.log(e);
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * Stops sending heartbeat probes and collecting telemetry.
+     */
+    public synchronized void stopMonitoring()
+    {
+        enabled = false;
+        probeSentAt.set(-1);
+        if (probeTask != null)
+        {
+            probeTask.cancel(false);
+            probeTask = null;
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Sets the threshold of a latency metric. Has no effect for {@link Metric#MISSED_ACKS MISSED_ACKS},
+     * use {@link #setMissedAckThreshold(int)} for that.
+     *
+     * @param metric
+     *          The latency metric.
+     * @param time
+     *          The highest healthy value, or -1 to remove the threshold.
+     * @param unit
+     *          The unit of the time.
+     */
+    public void setLatencyThreshold(Metric metric, long time, TimeUnit unit)
+    {
+        if (metric == Metric.MISSED_ACKS)
+            return;
+        //All latencies are sampled in microseconds
+        if (time < 0)
+            thresholds.remove(metric);
+        else
+            thresholds.put(metric, unit.toMicros(time));
+    }
+
+    /**
+     * Sets how many heartbeat probes in a row may stay unacknowledged before the connection is considered unhealthy.
+     *
+     * @param misses
+     *          The highest healthy amount of missed acknowledgements in a row, or -1 to remove the threshold.
+     */
+    public void setMissedAckThreshold(int misses)
+    {
+        if (misses < 0)
+            thresholds.remove(Metric.MISSED_ACKS);
+        else
+            thresholds.put(Metric.MISSED_ACKS, (long) misses);
+    }
+
+    /**
+     * The metrics that exceeded their threshold when they were checked last.
+     *
+     * @return
+     *      Unmodifiable set of the currently exceeded metrics.
+     */
+    public synchronized Set<Metric> getBreachedMetrics()
+    {
+        return Collections.unmodifiableSet(EnumSet.copyOf(breached));
+    }
+
+    /**
+     * The amount of the most recent heartbeat probes in a row that were not acknowledged.
+     *
+     * @return
+     *      The amount of consecutively missed acknowledgements.
+     */
+    public long getConsecutiveMissedAcks()
+    {
+        return consecutiveMisses.get();
+    }
+
+    /**
+     * Creates a snapshot of the collected telemetry.
+     *
+     * @return
+     *      The current {@link net.dv8tion.jda.client.utils.ConnectionHealth ConnectionHealth}.
+     */
+    public ConnectionHealth getHealth()
+    {
+        Map<String, long[]> types = new HashMap<>();
+        for (Map.Entry<String, LongAdder[]> entry : eventTypes.entrySet())
+            types.put(entry.getKey(), new long[] { entry.getValue()[0].sum(), entry.getValue()[1].sum() });
+
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long recent = 0;
+        synchronized (rateBuckets)
+        {
+            //The current second is not complete yet and is therefore left out.
+            for (int i = 0; i < RATE_WINDOW; i++)
+            {
+                if (rateSeconds[i] < second && rateSeconds[i] >= second - RATE_WINDOW)
+                    recent += rateBuckets[i];
+            }
+        }
+
+        double[] percentiles = { 50, 95, 99 };
+        return new ConnectionHealth(heartbeats.getPercentiles(percentiles), heartbeatsSent.get(), missedAcks.get(),
+                dispatchLag.getPercentiles(percentiles), listenerTime.getPercentiles(percentiles),
+                (double) recent / RATE_WINDOW, frames.sum(), bytes.sum(), types);
+    }
+
+    /**
+     * Called by the {@link net.dv8tion.jda.client.requests.WebSocketExtension WebSocketExtension} for every
+     * received frame, before the frame is handled.
+     *
+     * @param raw
+     *          The received frame.
+     * @param text
+     *          The frame as text, only required if monitoring is enabled.
+     * @param receivedAt
+     *          The {@link System#nanoTime()} at which the frame was received.
+     */
+    public void onFrame(JSONObject raw, String text, long receivedAt)
+    {
+        Object sequence = raw.opt("s");
+        if (sequence != null && sequence != JSONObject.NULL)
+            lastSequence = sequence;
+        int op = raw.optInt("op", -1);
+        //JDA starts heartbeating once it received the interval, the schedule is needed before monitoring starts.
+        if (op == 10 || (op == 0 && (raw.optString("t").equals("READY") || raw.optString("t").equals("RESUMED"))))
+        {
+            JSONObject content = raw.optJSONObject("d");
+            if (content != null && content.has("heartbeat_interval"))
+            {
+                beatInterval = TimeUnit.MILLISECONDS.toNanos(content.getLong("heartbeat_interval"));
+                beatAnchor = receivedAt;
+            }
+        }
+        if (!enabled)
+            return;
+
+        frameThread = Thread.currentThread();
+        frameReceivedAt = receivedAt;
+
+        if (op == 11)
+            onHeartbeatAck(receivedAt);
+
+        String type = op == 0 ? raw.optString("t", "op0") : "op" + op;
+        LongAdder[] counters = eventTypes.computeIfAbsent(type, t -> new LongAdder[] { new LongAdder(), new LongAdder() });
+        counters[0].increment();
+        frames.increment();
+        if (text != null)
+        {
+            long length = utf8Length(text);
+            counters[1].add(length);
+            bytes.add(length);
+        }
+
+        long second = TimeUnit.NANOSECONDS.toSeconds(receivedAt);
+        int bucket = (int) (second % RATE_WINDOW);
+        synchronized (rateBuckets)
+        {
+            if (rateSeconds[bucket] != second)
+            {
+                rateSeconds[bucket] = second;
+                rateBuckets[bucket] = 0;
+            }
+            rateBuckets[bucket]++;
+        }
+    }
+
+    /**
+     * Called by the event manager after an event was handled by all listeners.
+     *
+     * @param dispatchStart
+     *          The {@link System#nanoTime()} at which the event was handed to the listeners.
+     * @param dispatchEnd
+     *          The {@link System#nanoTime()} at which the last listener returned.
+     */
+    public void onDispatch(long dispatchStart, long dispatchEnd)
+    {
+        if (!enabled)
+            return;
+        //Only events fired while handling a frame have a receipt time, events from other threads are not gateway events.
+        if (frameThread == Thread.currentThread())
+            dispatchLag.add(TimeUnit.NANOSECONDS.toMicros(dispatchStart - frameReceivedAt));
+        listenerTime.add(TimeUnit.NANOSECONDS.toMicros(dispatchEnd - dispatchStart));
+    }
+
+    //Same as text.getBytes(UTF_8).length, without encoding large payloads like READY again.
+    protected static long utf8Length(String text)
+    {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            if (c < 0x80)
+                length++;
+            else if (c < 0x800)
+                length += 2;
+            else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1)))
+            {
+                length += 4;
+                i++;
+            }
+            else
+                length += 3;
+        }
+        return length;
+    }
+
+    protected void onHeartbeatAck(long receivedAt)
+    {
+        acksSeen = true;
+        long guard = TimeUnit.MILLISECONDS.toNanos(HEARTBEAT_GUARD);
+        long sentAt = probeSentAt.getAndSet(-1);
+        if (sentAt < 0)
+        {
+            //Acknowledges one of JDA's heartbeats. Its schedule drifts by the time every send takes, so follow it.
+            if (isHeartbeatExpected(receivedAt - 2 * guard, receivedAt))
+                beatAnchor = receivedAt - lastRoundTrip;
+            return;
+        }
+        consecutiveMisses.set(0);
+        //If JDA sent a heartbeat meanwhile, this might be its acknowledgement instead.
+        if (isHeartbeatExpected(sentAt - guard, receivedAt + guard))
+            return;
+        lastRoundTrip = receivedAt - sentAt;
+        heartbeats.add(TimeUnit.NANOSECONDS.toMicros(receivedAt - sentAt));
+    }
+
+    /**
+     * Checks whether or not JDA sends one of its own heartbeats in the given time span.
+     *
+     * @param from
+     *          The {@link System#nanoTime()} at which the time span starts.
+     * @param to
+     *          The {@link System#nanoTime()} at which the time span ends.
+     * @return
+     *      True if a heartbeat is expected, false if none is or the interval is not known yet.
+     */
+    protected boolean isHeartbeatExpected(long from, long to)
+    {
+        long interval = beatInterval;
+        long anchor = beatAnchor;
+        if (interval <= 0 || to - anchor < 0)
+            return false;
+        long beats = from - anchor <= 0 ? 0 : (from - anchor + interval - 1) / interval;
+        return to - (anchor + beats * interval) >= 0;
+    }
+
+    protected void probe()
+    {
+        if (api.getClient() == null || !api.getClient().isConnected())
+            return;
+        long now = System.nanoTime();
+        long guard = TimeUnit.MILLISECONDS.toNanos(HEARTBEAT_GUARD);
+        //The acknowledgements of both heartbeats could not be told apart.
+        if (isHeartbeatExpected(now - guard, now + guard))
+            return;
+        if (api.getGatewayRateLimiter().tryAcquire() > 0)
+            return;
+
+        if (probeSentAt.getAndSet(System.nanoTime()) >= 0 && acksSeen)
+        {
+            missedAcks.incrementAndGet();
+            consecutiveMisses.incrementAndGet();
+        }
+        api.getClient().send(new JSONObject()
+                .put("op", 1)
+                .put("d", lastSequence)
+                .toString());
+        heartbeatsSent.incrementAndGet();
+    }
+
+    protected void checkThresholds()
+    {
+        Map<Metric, Long> limits;
+        synchronized (thresholds)
+        {
+            limits = new EnumMap<>(thresholds);
+        }
+        ConnectionHealth health = getHealth();
+        Set<Metric> exceeded = EnumSet.noneOf(Metric.class);
+        for (Map.Entry<Metric, Long> limit : limits.entrySet())
+        {
+            long value;
+            switch (limit.getKey())
+            {
+                case HEARTBEAT_LATENCY:
+                    value = health.getHeartbeatP99(TimeUnit.MICROSECONDS);
+                    break;
+                case MISSED_ACKS:
+                    value = consecutiveMisses.get();
+                    break;
+                case DISPATCH_LAG:
+                    value = health.getDispatchLagP99(TimeUnit.MICROSECONDS);
+                    break;
+                default:
+                    value = health.getListenerTimeP99(TimeUnit.MICROSECONDS);
+                    break;
+            }
+            if (value > limit.getValue())
+                exceeded.add(limit.getKey());
+        }
+
+        synchronized (this)
+        {
+            if (exceeded.equals(breached))
+                return;
+            breached = exceeded;
+        }
+        api.getEventManager().handle(new ConnectionHealthEvent(api, api.getResponseTotal(), health,
+                Collections.unmodifiableSet(EnumSet.copyOf(exceeded))));
+    }
+}
@@ -15,14 +15,41 @@
  */
 package net.dv8tion.jda.client.requests;
 
+import net.dv8tion.jda.OnlineStatus;
+import net.dv8tion.jda.client.entities.Relationship;
+import net.dv8tion.jda.client.entities.RelationshipType;
 import net.dv8tion.jda.client.entities.impl.ClientSelfInfoImpl;
 import net.dv8tion.jda.client.entities.impl.JDAClientImpl;
+import net.dv8tion.jda.client.entities.impl.RelationshipImpl;
+import net.dv8tion.jda.client.events.relationship.RelationshipAddEvent;
+import net.dv8tion.jda.client.events.relationship.RelationshipRemoveEvent;
+import net.dv8tion.jda.client.events.relationship.RelationshipUpdateEvent;
+import net.dv8tion.jda.client.managers.PresenceManager;
+import net.dv8tion.jda.client.managers.ReadStateManager;
+import net.dv8tion.jda.client.utils.LongObjectMap;
+import net.dv8tion.jda.client.utils.StartupProfile;
+import net.dv8tion.jda.entities.Role;
+import net.dv8tion.jda.entities.User;
+import net.dv8tion.jda.entities.impl.EntityBuilder;
+import net.dv8tion.jda.entities.impl.GuildImpl;
+import net.dv8tion.jda.entities.impl.JDAImpl;
+import net.dv8tion.jda.entities.impl.UserImpl;
+import net.dv8tion.jda.entities.impl.VoiceStatusImpl;
 import net.dv8tion.jda.requests.WebSocketCustomHandler;
+import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 public class WebSocketExtension implements WebSocketCustomHandler
 {
     protected JDAClientImpl api;
+    protected volatile boolean sessionReady = false;
 
     public WebSocketExtension(JDAClientImpl api)
     {
@@ -32,7 +59,31 @@ public class WebSocketExtension implements WebSocketCustomHandler
     @Override
     public boolean handle(JSONObject raw)
     {
-        if (raw.getInt("op") != 0)
+        long receivedAt = System.nanoTime();
+        GatewayRecorder recorder = api.getRecorder();
+        HealthMonitor monitor = api.getHealthMonitor();
+        //Serializing the frame again is only worth it if someone needs the text.
+        String text = recorder != null || monitor.isEnabled() ? raw.toString() : null;
+        monitor.onFrame(raw, text, receivedAt);
+        if (recorder != null)
+        {
+            try
+            {
+                recorder.recordGatewayFrame(text);
+            }
+            catch (IOException e)
+            {
+                JDAImpl.LOG.warn("Could not record gateway frame, stopping the recording");
+                JDAImpl.LOG.log(e);
+                api.stopRecording();
+            }
+        }
+
+        int op = raw.getInt("op");
+        //HELLO starts a new connection, RECONNECT and INVALID_SESSION end the current session.
+        if (op == 10 || op == 7 || op == 9)
+            sessionReady = false;
+        if (op != 0)
             return false;
 
         String type = raw.getString("t");
@@ -51,9 +102,263 @@ public class WebSocketExtension implements WebSocketCustomHandler
                     api.setSelfInfo(info);
                 }
                 info.setEmail(self.getString("email"));
+                if (type.equals("READY"))
+                {
+                    //Set first, so the managers may send right away when they are told about the new session.
+                    sessionReady = true;
+                    handleRelationships(content.optJSONArray("relationships"));
+                    handleReadStates(content);
+                    handleNewSession(content);
+                    PresenceManager presenceManager = api.getPresenceManagerIfCreated();
+                    if (presenceManager != null)
+                        presenceManager.onNewSession();
+                    api.getStartupProfile().end(StartupProfile.Phase.READY);
+                }
+                return false;
+            }
+            case "RESUMED":
+            {
+                sessionReady = true;
                 return false;
             }
+            case "GUILD_DELETE":
+            {
+                api.getGuildSyncManager().onGuildRemoved(content.getString("id"));
+                return false;
+            }
+            case "GUILD_SYNC":
+            {
+                handleGuildSync(content);
+                return true;
+            }
+            case "MESSAGE_CREATE":
+            {
+                handleMessageCreate(content);
+                return false;
+            }
+            case "MESSAGE_ACK":
+            {
+                api.getReadStateManager().setAcked(Long.parseLong(content.getString("channel_id")), Long.parseLong(content.getString("message_id")));
+                return true;
+            }
+            case "RELATIONSHIP_ADD":
+            {
+                handleRelationshipAdd(content);
+                return true;
+            }
+            case "RELATIONSHIP_REMOVE":
+            {
+                handleRelationshipRemove(content);
+                return true;
+            }
         }
         return false;
     }
+
+    /**
+     * Whether or not the current gateway session was identified (READY) or resumed (RESUMED) and is still connected.
+     * Payloads other than heartbeats may only be sent while this is true, Discord closes the connection otherwise.
+     *
+     * @return
+     *      True if the session is ready.
+     */
+    public boolean isSessionReady()
+    {
+        if (api.getClient() == null || !api.getClient().isConnected())
+        {
+            sessionReady = false;
+            return false;
+        }
+        return sessionReady;
+    }
+
+    protected void handleRelationships(JSONArray array)
+    {
+        LongObjectMap<Relationship> relationships = api.getRelationshipMap();
+        synchronized (relationships)
+        {
+            //READY is also sent after a full reconnect, so the old state has to be dropped.
+            relationships.clear();
+            if (array == null)
+                return;
+            for (int i = 0; i < array.length(); i++)
+            {
+                JSONObject relationship = array.getJSONObject(i);
+                long userId = Long.parseLong(relationship.getString("id"));
+                relationships.put(userId, new RelationshipImpl(api, userId,
+                        RelationshipType.fromKey(relationship.getInt("type")), resolveUser(userId, relationship.optJSONObject("user"))));
+            }
+        }
+    }
+
+    //Only called on the WebSocket thread, JDA's user map is not synchronized.
+    protected User resolveUser(long userId, JSONObject json)
+    {
+        User user = api.getUserById(Long.toString(userId));
+        if (user == null && json != null)
+            user = new EntityBuilder(api).createUser(json);
+        return user;
+    }
+
+    protected void handleNewSession(JSONObject content)
+    {
+        JSONArray guilds = content.getJSONArray("guilds");
+        Set<String> guildIds = new HashSet<>(guilds.length());
+        for (int i = 0; i < guilds.length(); i++)
+            guildIds.add(guilds.getJSONObject(i).getString("id"));
+        api.getGuildSyncManager().onNewSession(guildIds);
+    }
+
+    protected void handleGuildSync(JSONObject content)
+    {
+        String guildId = content.getString("id");
+        GuildImpl guild = (GuildImpl) api.getGuildMap().get(guildId);
+        if (guild == null)
+        {
+            JDAImpl.LOG.debug("Received GUILD_SYNC for a guild that is not cached. GuildId: " + guildId);
+            //Settle the pending sync, otherwise the guild could never be requested again.
+            api.getGuildSyncManager().onGuildRemoved(guildId);
+            return;
+        }
+
+        EntityBuilder builder = new EntityBuilder(api);
+        JSONArray members = content.getJSONArray("members");
+        for (int i = 0; i < members.length(); i++)
+        {
+            JSONObject member = members.getJSONObject(i);
+            User user = builder.createUser(member.getJSONObject("user"));
+            if (guild.getUserRoles().containsKey(user))
+                continue;
+
+            List<Role> roles = new ArrayList<>();
+            JSONArray roleIds = member.getJSONArray("roles");
+            for (int j = 0; j < roleIds.length(); j++)
+            {
+                Role role = guild.getRolesMap().get(roleIds.getString(j));
+                if (role != null)
+                    roles.add(role);
+            }
+            roles.add(guild.getPublicRole());
+
+            guild.getUserRoles().put(user, roles);
+            guild.getJoinedAtMap().put(user, OffsetDateTime.parse(member.getString("joined_at")));
+            guild.getVoiceStatusMap().put(user, new VoiceStatusImpl(user, guild));
+            if (member.has("nick") && !member.isNull("nick"))
+                guild.getNickMap().put(user, member.getString("nick"));
+        }
+
+        JSONArray presences = content.optJSONArray("presences");
+        for (int i = 0; presences != null && i < presences.length(); i++)
+        {
+            JSONObject presence = presences.getJSONObject(i);
+            UserImpl user = (UserImpl) api.getUserMap().get(presence.getJSONObject("user").getString("id"));
+            if (user != null)
+                user.setOnlineStatus(OnlineStatus.fromKey(presence.getString("status")));
+        }
+
+        api.getGuildSyncManager().onGuildSynced(guildId);
+    }
+
+    protected void handleReadStates(JSONObject content)
+    {
+        ReadStateManager manager = api.getReadStateManager();
+        manager.clear();
+
+        //The latest message of each channel is part of the channel objects, the acked one is part of read_state.
+        JSONArray guilds = content.getJSONArray("guilds");
+        for (int i = 0; i < guilds.length(); i++)
+        {
+            JSONArray channels = guilds.getJSONObject(i).optJSONArray("channels");
+            if (channels != null)
+                handleLastMessageIds(manager, channels);
+        }
+        JSONArray privateChannels = content.optJSONArray("private_channels");
+        if (privateChannels != null)
+            handleLastMessageIds(manager, privateChannels);
+
+        //Newer gateway versions wrap the entries into an object.
+        JSONArray readStates = content.optJSONArray("read_state");
+        if (readStates == null && content.optJSONObject("read_state") != null)
+            readStates = content.getJSONObject("read_state").optJSONArray("entries");
+        if (readStates == null)
+            return;
+        for (int i = 0; i < readStates.length(); i++)
+        {
+            JSONObject state = readStates.getJSONObject(i);
+            manager.setReadState(Long.parseLong(state.getString("id")),
+                    state.isNull("last_message_id") ? 0 : Long.parseLong(state.getString("last_message_id")),
+                    state.optInt("mention_count", 0));
+        }
+    }
+
+    protected void handleLastMessageIds(ReadStateManager manager, JSONArray channels)
+    {
+        for (int i = 0; i < channels.length(); i++)
+        {
+            JSONObject channel = channels.getJSONObject(i);
+            if (channel.has("last_message_id") && !channel.isNull("last_message_id"))
+                manager.setLastMessageId(Long.parseLong(channel.getString("id")), Long.parseLong(channel.getString("last_message_id")));
+        }
+    }
+
+    protected void handleMessageCreate(JSONObject content)
+    {
+        String channelId = content.getString("channel_id");
+        String selfId = api.getSelfInfo().getId();
+        boolean own = selfId.equals(content.getJSONObject("author").getString("id"));
+
+        //Every message in a private channel counts as mention, just like in the official client.
+        boolean mentioned = content.optBoolean("mention_everyone") || api.getPrivateChannelById(channelId) != null;
+        JSONArray mentions = content.optJSONArray("mentions");
+        for (int i = 0; !mentioned && mentions != null && i < mentions.length(); i++)
+            mentioned = selfId.equals(mentions.getJSONObject(i).getString("id"));
+
+        api.getReadStateManager().onMessage(Long.parseLong(channelId), Long.parseLong(content.getString("id")), own, mentioned);
+    }
+
+    protected void handleRelationshipAdd(JSONObject content)
+    {
+        long userId = Long.parseLong(content.getString("id"));
+        RelationshipType type = RelationshipType.fromKey(content.getInt("type"));
+        LongObjectMap<Relationship> relationships = api.getRelationshipMap();
+        User user = resolveUser(userId, content.optJSONObject("user"));
+
+        RelationshipImpl relationship;
+        RelationshipType previousType = null;
+        synchronized (relationships)
+        {
+            relationship = (RelationshipImpl) relationships.get(userId);
+            if (relationship == null)
+            {
+                relationship = new RelationshipImpl(api, userId, type, user);
+                relationships.put(userId, relationship);
+            }
+            else
+            {
+                previousType = relationship.getType();
+                relationship.setType(type);
+                if (user != null)
+                    relationship.setUser(user);
+            }
+        }
+
+        if (previousType == null)
+            api.getEventManager().handle(new RelationshipAddEvent(api, api.getResponseTotal(), relationship));
+        else if (previousType != type)
+            api.getEventManager().handle(new RelationshipUpdateEvent(api, api.getResponseTotal(), relationship, previousType));
+    }
+
+    protected void handleRelationshipRemove(JSONObject content)
+    {
+        long userId = Long.parseLong(content.getString("id"));
+        LongObjectMap<Relationship> relationships = api.getRelationshipMap();
+
+        Relationship relationship;
+        synchronized (relationships)
+        {
+            relationship = relationships.remove(userId);
+        }
+        if (relationship != null)
+            api.getEventManager().handle(new RelationshipRemoveEvent(api, api.getResponseTotal(), relationship));
+    }
 }
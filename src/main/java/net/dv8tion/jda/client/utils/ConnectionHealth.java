@@ -0,0 +1,192 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.utils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A snapshot of the health of the gateway connection of a {@link net.dv8tion.jda.client.JDAClient JDAClient},
+ * as seen by the client layer.
+ * Percentiles are computed over the most recent samples and are returned in the requested unit.
+ * A value of -1 means that there were no samples yet.
+ * Use {@link net.dv8tion.jda.client.requests.HealthMonitor#getHealth()} to create a snapshot.
+ */
+public class ConnectionHealth
+{
+    protected final long[] heartbeat;
+    protected final long heartbeatsSent;
+    protected final long missedAcks;
+    protected final long[] dispatchLag;
+    protected final long[] listenerTime;
+    protected final double framesPerSecond;
+    protected final long frames;
+    protected final long bytes;
+    protected final Map<String, long[]> eventTypes;
+
+    public ConnectionHealth(long[] heartbeat, long heartbeatsSent, long missedAcks, long[] dispatchLag, long[] listenerTime,
+                            double framesPerSecond, long frames, long bytes, Map<String, long[]> eventTypes)
+    {
+        this.heartbeat = heartbeat;
+        this.heartbeatsSent = heartbeatsSent;
+        this.missedAcks = missedAcks;
+        this.dispatchLag = dispatchLag;
+        this.listenerTime = listenerTime;
+        this.framesPerSecond = framesPerSecond;
+        this.frames = frames;
+        this.bytes = bytes;
+        this.eventTypes = Collections.unmodifiableMap(eventTypes);
+    }
+
+    public long getHeartbeatP50(TimeUnit unit)
+    {
+        return convert(heartbeat[0], unit);
+    }
+
+    public long getHeartbeatP95(TimeUnit unit)
+    {
+        return convert(heartbeat[1], unit);
+    }
+
+    public long getHeartbeatP99(TimeUnit unit)
+    {
+        return convert(heartbeat[2], unit);
+    }
+
+    /**
+     * The amount of heartbeat probes sent by the {@link net.dv8tion.jda.client.requests.HealthMonitor HealthMonitor}.
+     *
+     * @return
+     *      The amount of sent probes.
+     */
+    public long getHeartbeatsSent()
+    {
+        return heartbeatsSent;
+    }
+
+    /**
+     * The amount of heartbeat probes that were not acknowledged before the next probe was sent.
+     *
+     * @return
+     *      The amount of missed acknowledgements.
+     */
+    public long getMissedAcks()
+    {
+        return missedAcks;
+    }
+
+    /**
+     * The median time from receiving a gateway frame until its event was handed to the listeners.
+     *
+     * @param unit
+     *          The unit of the returned time.
+     * @return
+     *      The median dispatch lag.
+     */
+    public long getDispatchLagP50(TimeUnit unit)
+    {
+        return convert(dispatchLag[0], unit);
+    }
+
+    public long getDispatchLagP95(TimeUnit unit)
+    {
+        return convert(dispatchLag[1], unit);
+    }
+
+    public long getDispatchLagP99(TimeUnit unit)
+    {
+        return convert(dispatchLag[2], unit);
+    }
+
+    /**
+     * The median time all listeners together needed to handle one event.
+     *
+     * @param unit
+     *          The unit of the returned time.
+     * @return
+     *      The median listener time.
+     */
+    public long getListenerTimeP50(TimeUnit unit)
+    {
+        return convert(listenerTime[0], unit);
+    }
+
+    public long getListenerTimeP95(TimeUnit unit)
+    {
+        return convert(listenerTime[1], unit);
+    }
+
+    public long getListenerTimeP99(TimeUnit unit)
+    {
+        return convert(listenerTime[2], unit);
+    }
+
+    /**
+     * The average amount of frames received per second during the last minute.
+     *
+     * @return
+     *      The inbound frame rate.
+     */
+    public double getFramesPerSecond()
+    {
+        return framesPerSecond;
+    }
+
+    public long getFrameCount()
+    {
+        return frames;
+    }
+
+    /**
+     * The amount of payload bytes received since monitoring started. JDA does not expose the frames as received,
+     * so this is the UTF-8 length of the parsed payloads serialized again; it excludes compression and framing.
+     *
+     * @return
+     *      The amount of payload bytes.
+     */
+    public long getPayloadByteCount()
+    {
+        return bytes;
+    }
+
+    /**
+     * The amount of frames and {@link #getPayloadByteCount() payload bytes} received per event type since monitoring started.
+     * Dispatches are keyed by their event name (e.g. MESSAGE_CREATE), other frames by {@code op<code>}.
+     *
+     * @return
+     *      Unmodifiable map of event type to {@code [frames, payload bytes]}.
+     */
+    public Map<String, long[]> getEventTypes()
+    {
+        return eventTypes;
+    }
+
+    @Override
+    public String toString()
+    {
+        TimeUnit ms = TimeUnit.MILLISECONDS, us = TimeUnit.MICROSECONDS;
+        return String.format("ConnectionHealth(heartbeat p50/p99: %d/%d ms, missed acks: %d, dispatch lag p50/p99: %d/%d us, listeners p50/p99: %d/%d us, %.1f frames/s)",
+                getHeartbeatP50(ms), getHeartbeatP99(ms), missedAcks, getDispatchLagP50(us), getDispatchLagP99(us),
+                getListenerTimeP50(us), getListenerTimeP99(us), framesPerSecond);
+    }
+
+    //Samples are kept in microseconds
+    protected static long convert(long micros, TimeUnit unit)
+    {
+        return micros < 0 ? micros : unit.convert(micros, TimeUnit.MICROSECONDS);
+    }
+}
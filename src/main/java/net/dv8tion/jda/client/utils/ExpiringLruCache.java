@@ -0,0 +1,238 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A size-bounded least-recently-used cache whose entries additionally expire after a fixed time.
+ * <br>
+ * All methods are synchronized on the cache instance.
+ *
+ * @param <K>
+ *      The type of the keys.
+ * @param <V>
+ *      The type of the cached values.
+ */
+public class ExpiringLruCache<K, V>
+{
+    private final LinkedHashMap<K, Entry<V>> map;
+    private final long ttlNanos;
+    private volatile int maxSize;
+
+    public ExpiringLruCache(int maxSize, long ttl, TimeUnit unit)
+    {
+        if (maxSize < 0)
+            throw new IllegalArgumentException("Max size may not be negative");
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.map = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest)
+            {
+                return size() > ExpiringLruCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for the given key, or {@code null} if there is none or it expired.
+     *
+     * @param key
+     *          The key to look up.
+     * @return
+     *      Possibly-null cached value.
+     */
+    public synchronized V get(K key)
+    {
+        Entry<V> entry = map.get(key);
+        if (entry == null)
+            return null;
+        if (entry.isExpired(System.nanoTime(), ttlNanos))
+        {
+            map.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value)
+    {
+        if (maxSize > 0)
+            map.put(key, new Entry<>(value, false));
+    }
+
+    /**
+     * Caches a value that is not complete yet, like a running request.
+     * <br>
+     * The entry does not expire until its time to live is started by {@link #restartExpiry(Object, Object)},
+     * but it is still removed if it becomes the least recently used entry of a full cache.
+     *
+     * @param key
+     *          The key of the entry.
+     * @param value
+     *          The pending value.
+     */
+    public synchronized void putPending(K key, V value)
+    {
+        if (maxSize > 0)
+            map.put(key, new Entry<>(value, true));
+    }
+
+    public synchronized void remove(K key)
+    {
+        map.remove(key);
+    }
+
+    /**
+     * Removes the entry of the given key, but only if it is still mapped to the given value.
+     *
+     * @param key
+     *          The key of the entry.
+     * @param value
+     *          The value the entry has to contain.
+     * @return
+     *      True if the entry was removed.
+     */
+    public synchronized boolean remove(K key, V value)
+    {
+        Entry<V> entry = map.get(key);
+        if (entry == null || entry.value != value)
+            return false;
+        map.remove(key);
+        return true;
+    }
+
+    /**
+     * Lets the entry of the given key expire one time to live from now, but only if it is still mapped to the given value.
+     * This also starts the time to live of a {@link #putPending(Object, Object) pending} entry.
+     *
+     * @param key
+     *          The key of the entry.
+     * @param value
+     *          The value the entry has to contain.
+     * @return
+     *      True if the expiry of the entry was restarted.
+     */
+    public synchronized boolean restartExpiry(K key, V value)
+    {
+        Entry<V> entry = map.get(key);
+        if (entry == null || entry.value != value)
+            return false;
+        entry.created = System.nanoTime();
+        entry.pending = false;
+        return true;
+    }
+
+    public synchronized void clear()
+    {
+        map.clear();
+    }
+
+    /**
+     * Removes all expired entries.
+     *
+     * @return
+     *      The amount of removed entries.
+     */
+    public synchronized int purgeExpired()
+    {
+        int removed = 0;
+        long now = System.nanoTime();
+        Iterator<Entry<V>> it = map.values().iterator();
+        while (it.hasNext())
+        {
+            if (it.next().isExpired(now, ttlNanos))
+            {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the values of all entries that did not expire yet.
+     *
+     * @return
+     *      A new list of the cached values.
+     */
+    public synchronized List<V> values()
+    {
+        long now = System.nanoTime();
+        List<V> values = new ArrayList<>(map.size());
+        for (Entry<V> entry : map.values())
+        {
+            if (!entry.isExpired(now, ttlNanos))
+                values.add(entry.value);
+        }
+        return values;
+    }
+
+    public synchronized int size()
+    {
+        return map.size();
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * Changes the maximum amount of entries. If the cache currently holds more entries,
+     * the least recently used ones are removed.
+     *
+     * @param maxSize
+     *          The new maximum size.
+     */
+    public synchronized void setMaxSize(int maxSize)
+    {
+        if (maxSize < 0)
+            throw new IllegalArgumentException("Max size may not be negative");
+        this.maxSize = maxSize;
+        Iterator<K> it = map.keySet().iterator();
+        while (map.size() > maxSize && it.hasNext())
+        {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static class Entry<V>
+    {
+        private final V value;
+        private long created = System.nanoTime();
+        private boolean pending;
+
+        private Entry(V value, boolean pending)
+        {
+            this.value = value;
+            this.pending = pending;
+        }
+
+        private boolean isExpired(long now, long ttlNanos)
+        {
+            return !pending && now - created > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact hash map that uses primitive {@code long} keys (Discord snowflake ids) instead of boxed Strings.
+ * <br>
+ * Keys and values are stored in two parallel arrays using open addressing with linear probing, so a lookup
+ * does not allocate and a stored entry costs 8 bytes for the key plus one reference for the value.
+ * <p>
+ * This class is <b>not</b> thread-safe. Callers are expected to synchronize on the map instance
+ * when it is shared between the WebSocket thread and user threads.
+ *
+ * @param <V>
+ *      The type of the stored values.
+ */
+public class LongObjectMap<V>
+{
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int threshold;
+
+    public LongObjectMap()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongObjectMap(int expectedSize)
+    {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, (int) (expectedSize / LOAD_FACTOR) + 1) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the value mapped to the given key, or {@code null} if there is none.
+     *
+     * @param key
+     *          The key to look up.
+     * @return
+     *      Possibly-null value mapped to the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key)
+    {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        Object value;
+        while ((value = values[index]) != null)
+        {
+            if (keys[index] == key)
+                return (V) value;
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key)
+    {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps the given key to the given value, replacing any previous mapping.
+     *
+     * @param key
+     *          The key.
+     * @param value
+     *          The non-null value.
+     * @return
+     *      The previously mapped value, or {@code null} if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value)
+    {
+        if (value == null)
+            throw new IllegalArgumentException("LongObjectMap does not support null values");
+
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        Object current;
+        while ((current = values[index]) != null)
+        {
+            if (keys[index] == key)
+            {
+                values[index] = value;
+                return (V) current;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > threshold)
+            rehash(keys.length << 1);
+        return null;
+    }
+
+    /**
+     * Removes the mapping for the given key.
+     *
+     * @param key
+     *          The key to remove.
+     * @return
+     *      The removed value, or {@code null} if the key was not mapped.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key)
+    {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        Object current;
+        while ((current = values[index]) != null)
+        {
+            if (keys[index] == key)
+            {
+                size--;
+                shiftBack(index, mask);
+                return (V) current;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Creates a new list containing all values of this map in no particular order.
+     *
+     * @return
+     *      A new, modifiable list of the values.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values()
+    {
+        List<V> list = new ArrayList<>(size);
+        for (Object value : values)
+        {
+            if (value != null)
+                list.add((V) value);
+        }
+        return list;
+    }
+
+    /**
+     * Creates a new array containing all keys of this map in no particular order.
+     *
+     * @return
+     *      A new array of the keys.
+     */
+    public long[] keys()
+    {
+        long[] result = new long[size];
+        int i = 0;
+        for (int index = 0; index < values.length; index++)
+        {
+            if (values[index] != null)
+                result[i++] = keys[index];
+        }
+        return result;
+    }
+
+    /**
+     * The number of slots currently allocated by this map. Used for memory estimations.
+     *
+     * @return
+     *      The capacity of the backing arrays.
+     */
+    public int capacity()
+    {
+        return keys.length;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones.
+    private void shiftBack(int index, int mask)
+    {
+        int last = index;
+        int slot = (index + 1) & mask;
+        while (values[slot] != null)
+        {
+            int ideal = hash(keys[slot]) & mask;
+            if (last <= slot ? (ideal <= last || ideal > slot) : (ideal <= last && ideal > slot))
+            {
+                keys[last] = keys[slot];
+                values[last] = values[slot];
+                last = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        values[last] = null;
+    }
+
+    private void rehash(int capacity)
+    {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++)
+        {
+            if (oldValues[i] == null)
+                continue;
+            int index = hash(oldKeys[i]) & mask;
+            while (values[index] != null)
+                index = (index + 1) & mask;
+            keys[index] = oldKeys[i];
+            values[index] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int hash(long key)
+    {
+        // Snowflakes carry their entropy in the low (sequence/worker) and middle (timestamp) bits; mix both halves.
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
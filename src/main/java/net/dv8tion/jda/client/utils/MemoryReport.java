@@ -0,0 +1,151 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.utils;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A snapshot of the entity counts and estimated retained heap of the caches of a
+ * {@link net.dv8tion.jda.client.JDAClient JDAClient}.
+ * <br>
+ * Byte values are estimations based on typical per-entity sizes on a 64-bit JVM with compressed references.
+ * They are meant for comparing accounts and spotting growth, not for exact measurements.
+ * Use {@link net.dv8tion.jda.client.managers.MemoryManager#sample()} to create a report.
+ */
+public class MemoryReport
+{
+    /**
+     * The estimated retained heap of one message in a cached search page. Search caches are charged
+     * {@link CacheType#SEARCH_CACHE SEARCH_CACHE} bytes per page plus this for every message the page holds.
+     */
+    public static final long BYTES_PER_SEARCH_MESSAGE = 1024;
+
+    public enum CacheType
+    {
+        GUILDS(1024, false),
+        TEXT_CHANNELS(256, false),
+        VOICE_CHANNELS(256, false),
+        PRIVATE_CHANNELS(128, false),
+        USERS(208, false),
+        MEMBERS(176, false),
+        ROLES(160, false),
+        SELF_INFO(256, false),
+        TOKEN_STORE(256, false),
+        RELATIONSHIPS(60, false),
+        READ_STATES(52, true),
+        SEARCH_CACHE(512, true);
+
+        private final long bytesPerEntity;
+        private final boolean optional;
+
+        CacheType(long bytesPerEntity, boolean optional)
+        {
+            this.bytesPerEntity = bytesPerEntity;
+            this.optional = optional;
+        }
+
+        /**
+         * The estimated retained heap of one entity of this type, including its share of the containing maps.
+         *
+         * @return
+         *      The estimated size in bytes.
+         */
+        public long getBytesPerEntity()
+        {
+            return bytesPerEntity;
+        }
+
+        /**
+         * Whether or not this cache can be evicted without losing state that is needed to operate the client.
+         *
+         * @return
+         *      True if the cache is optional.
+         */
+        public boolean isOptional()
+        {
+            return optional;
+        }
+    }
+
+    protected final long timestamp;
+    protected final Map<CacheType, Long> counts;
+    protected final Map<CacheType, Long> bytes;
+    protected final Map<CacheType, Integer> growthStreaks;
+
+    public MemoryReport(long timestamp, Map<CacheType, Long> counts, Map<CacheType, Long> bytes, Map<CacheType, Integer> growthStreaks)
+    {
+        this.timestamp = timestamp;
+        this.counts = new EnumMap<>(counts);
+        this.bytes = new EnumMap<>(bytes);
+        this.growthStreaks = new EnumMap<>(growthStreaks);
+    }
+
+    /**
+     * The time this report was created at, in milliseconds since epoch.
+     *
+     * @return
+     *      The creation time of this report.
+     */
+    public long getTimestamp()
+    {
+        return timestamp;
+    }
+
+    public long getCount(CacheType type)
+    {
+        return counts.getOrDefault(type, 0L);
+    }
+
+    public long getEstimatedBytes(CacheType type)
+    {
+        return bytes.getOrDefault(type, 0L);
+    }
+
+    public long getTotalEstimatedBytes()
+    {
+        long total = 0;
+        for (long value : bytes.values())
+            total += value;
+        return total;
+    }
+
+    /**
+     * The amount of consecutive samples in which the entity count of the given cache increased.
+     * A cache that keeps growing over many samples might not be bounded.
+     *
+     * @param type
+     *          The cache to check.
+     * @return
+     *      The amount of consecutive samples with growth, 0 if the cache did not grow in the last sample.
+     */
+    public int getGrowthStreak(CacheType type)
+    {
+        return growthStreaks.getOrDefault(type, 0);
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder("MemoryReport(").append(getTotalEstimatedBytes()).append(" bytes)");
+        for (CacheType type : CacheType.values())
+        {
+            builder.append("\n  ").append(type).append(": ").append(getCount(type))
+                    .append(" (~").append(getEstimatedBytes(type)).append(" bytes)");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.utils;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size ring of the most recent long samples (e.g. latencies) that can report percentiles.
+ * <br>
+ * Adding a sample does not allocate. Percentiles are computed on a sorted copy of the ring.
+ */
+public class RollingSamples
+{
+    private final long[] samples;
+    private int next = 0;
+    private int size = 0;
+    private long total = 0;
+
+    public RollingSamples(int capacity)
+    {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity has to be at least 1");
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void add(long sample)
+    {
+        samples[next] = sample;
+        next = (next + 1) % samples.length;
+        if (size < samples.length)
+            size++;
+        total++;
+    }
+
+    /**
+     * Computes the given percentiles of the samples currently in the ring.
+     *
+     * @param percentiles
+     *          The percentiles to compute, each between 0 and 100.
+     * @return
+     *      The value for each requested percentile, in the same order. All -1 if there are no samples.
+     */
+    public long[] getPercentiles(double... percentiles)
+    {
+        long[] sorted;
+        synchronized (this)
+        {
+            sorted = Arrays.copyOf(samples, size);
+        }
+        Arrays.sort(sorted);
+        long[] result = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++)
+        {
+            if (sorted.length == 0)
+            {
+                result[i] = -1;
+                continue;
+            }
+            int index = (int) Math.ceil(percentiles[i] / 100 * sorted.length) - 1;
+            result[i] = sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+        return result;
+    }
+
+    /**
+     * The amount of samples ever added, including the ones that were already overwritten.
+     *
+     * @return
+     *      The total amount of samples.
+     */
+    public synchronized long getTotal()
+    {
+        return total;
+    }
+
+    public synchronized void clear()
+    {
+        next = 0;
+        size = 0;
+    }
+}
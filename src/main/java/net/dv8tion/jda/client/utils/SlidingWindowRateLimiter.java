@@ -0,0 +1,106 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter that allows a fixed amount of permits within any sliding time window.
+ * <br>
+ * The send times of the last {@code budget} permits are kept in a ring buffer, so checking and taking a permit
+ * does not allocate.
+ */
+public class SlidingWindowRateLimiter
+{
+    private final long windowNanos;
+    private final long[] sendTimes;
+    private int next = 0;
+    private int used = 0;
+
+    public SlidingWindowRateLimiter(int budget, long window, TimeUnit unit)
+    {
+        if (budget < 1)
+            throw new IllegalArgumentException("Budget must be at least 1");
+        this.sendTimes = new long[budget];
+        this.windowNanos = unit.toNanos(window);
+    }
+
+    /**
+     * Tries to take a permit.
+     *
+     * @return
+     *      0 if a permit was taken,
+     *      otherwise the amount of milliseconds until the next permit becomes available.
+     */
+    public synchronized long tryAcquire()
+    {
+        long now = System.nanoTime();
+        if (used == sendTimes.length)
+        {
+            //next points at the oldest send in the window
+            long freeAt = sendTimes[next] + windowNanos;
+            if (freeAt - now > 0)
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(freeAt - now));
+        }
+        else
+        {
+            used++;
+        }
+        sendTimes[next] = now;
+        next = (next + 1) % sendTimes.length;
+        return 0;
+    }
+
+    /**
+     * The time until a permit becomes available, without taking it.
+     *
+     * @return
+     *      0 if a permit is available right now, otherwise the amount of milliseconds until one becomes available.
+     */
+    public synchronized long getWaitTime()
+    {
+        if (used < sendTimes.length)
+            return 0;
+        long remaining = sendTimes[next] + windowNanos - System.nanoTime();
+        return remaining > 0 ? Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)) : 0;
+    }
+
+    /**
+     * The amount of permits that can be taken right now without exceeding the budget.
+     *
+     * @return
+     *      The amount of available permits.
+     */
+    public synchronized int getAvailablePermits()
+    {
+        long now = System.nanoTime();
+        int available = sendTimes.length - used;
+        for (int i = 0; i < used; i++)
+        {
+            int index = (next - used + i + sendTimes.length) % sendTimes.length;
+            if (now - sendTimes[index] >= windowNanos)
+                available++;
+            else
+                break;
+        }
+        return available;
+    }
+
+    public int getBudget()
+    {
+        return sendTimes.length;
+    }
+}
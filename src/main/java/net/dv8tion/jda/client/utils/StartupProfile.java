@@ -0,0 +1,125 @@
+/*
+ *     Copyright 2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.client.utils;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long the individual phases of starting a {@link net.dv8tion.jda.client.JDAClient JDAClient} took,
+ * from the call to {@link net.dv8tion.jda.client.JDAClientBuilder#buildAsync() buildAsync()} until READY was received.
+ * <br>
+ * Phases can overlap, for example the {@link Phase#HTTP_WARMUP HTTP warm-up} of the cold start mode runs
+ * in parallel to the construction of the client. Phases that did not happen have no duration.
+ */
+public class StartupProfile
+{
+    public enum Phase
+    {
+        /** Initialization of the HTTP client and the first connection to the API (cold start mode only) */
+        HTTP_WARMUP,
+        /** Construction of the client, including JDA's subsystems like audio */
+        CONSTRUCT,
+        /** Reading the stored tokens from tokens.json */
+        TOKEN_STORE,
+        /** Validating a stored token or requesting a new one with email and password */
+        AUTHENTICATE,
+        /** Gateway discovery and opening the WebSocket connection */
+        CONNECT,
+        /** From the start of the connection until the READY payload was received, so it overlaps CONNECT */
+        READY
+    }
+
+    protected final long start = System.nanoTime();
+    protected final Map<Phase, Long> begins = new EnumMap<>(Phase.class);
+    protected final Map<Phase, Long> ends = new EnumMap<>(Phase.class);
+
+    public synchronized void begin(Phase phase)
+    {
+        begins.put(phase, System.nanoTime());
+        ends.remove(phase);
+    }
+
+    /**
+     * Marks the given phase as finished. Does nothing if the phase was not started or already ended.
+     *
+     * @param phase
+     *          The finished phase.
+     */
+    public synchronized void end(Phase phase)
+    {
+        if (begins.containsKey(phase) && !ends.containsKey(phase))
+            ends.put(phase, System.nanoTime());
+    }
+
+    /**
+     * The time the given phase took.
+     *
+     * @param phase
+     *          The phase.
+     * @param unit
+     *          The unit of the returned duration.
+     * @return
+     *      The duration of the phase, or -1 if the phase did not finish (yet).
+     */
+    public synchronized long getDuration(Phase phase, TimeUnit unit)
+    {
+        Long begin = begins.get(phase);
+        Long end = ends.get(phase);
+        if (begin == null || end == null)
+            return -1;
+        return unit.convert(end - begin, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Whether or not the first READY was received.
+     *
+     * @return
+     *      True if the client is ready.
+     */
+    public synchronized boolean isReady()
+    {
+        return ends.containsKey(Phase.READY);
+    }
+
+    /**
+     * The time from the start of the build until the first READY was received.
+     *
+     * @param unit
+     *          The unit of the returned duration.
+     * @return
+     *      The time to READY, or -1 if READY was not received yet.
+     */
+    public synchronized long getTimeToReady(TimeUnit unit)
+    {
+        Long ready = ends.get(Phase.READY);
+        return ready == null ? -1 : unit.convert(ready - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        StringBuilder builder = new StringBuilder("StartupProfile(ready: ").append(getTimeToReady(TimeUnit.MILLISECONDS)).append(" ms)");
+        for (Phase phase : Phase.values())
+        {
+            long duration = getDuration(phase, TimeUnit.MILLISECONDS);
+            if (duration != -1)
+                builder.append("\n  ").append(phase).append(": ").append(duration).append(" ms");
+        }
+        return builder.toString();
+    }
+}